@@ -0,0 +1,168 @@
+// Landmark based approximate distance oracle
+// Picks k landmark vertices and stores the exact distance from every landmark
+// to every vertex, computed by k runs of SPT_Dijkstra spread over all cores.
+// A query (u, v) then costs O(k):
+//
+//   upper(u, v) = min over landmarks l of d(u,l) + d(l,v)
+//   lower(u, v) = max over landmarks l of |d(u,l) - d(l,v)|
+//
+// Stretch bound: by the triangle inequality d(l,v) <= d(l,u) + d(u,v), so
+//
+//   d(u,v) <= upper(u,v) <= d(u,v) + 2 * min(r(u), r(v))
+//
+// where r(x) is the distance from x to its nearest landmark; errorBound(u, v)
+// returns that additive error in O(1). The estimate is exact whenever some
+// landmark lies on a shortest u-v path. Both bounds only use landmarks in the
+// same component as u and v, and are Long.MAX_VALUE / 0 when there are none.
+// upper() is a long: d(u,l) + d(l,v) can pass Integer.MAX_VALUE even when
+// d(u,v) itself fits in an int.
+//
+// Memory is 4 * k * (V + 1) bytes for the table, plus O(V) per Dijkstra run
+// in progress (at most one per core); build() lowers k to fit a byte budget.
+
+import java.io.*;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.stream.IntStream;
+
+class DistanceOracle {
+    final int V, k;
+    final int[] landmarks;
+    private final int[] table;     // table[v*k + i] = d(landmarks[i], v), one row per vertex
+    private final int[] nearest;   // nearest[v] = r(v)
+
+    private DistanceOracle(int _V, int[] _landmarks, int[] _table, int[] _nearest)
+    {
+        V = _V;
+        k = _landmarks.length;
+        landmarks = _landmarks;
+        table = _table;
+        nearest = _nearest;
+    }
+
+    // Builds an oracle with up to k landmarks sampled at random (seeded),
+    // using at most maxBytes for the distance table.
+    static DistanceOracle build(GraphCSR g, int k, long maxBytes, long seed)
+    {
+        int V = g.V;
+        long fit = Math.min(maxBytes / 4, Integer.MAX_VALUE - 8) / (V + 1);
+        k = (int) Math.max(1, Math.min(Math.min(k, fit), V));
+
+        // partial Fisher-Yates shuffle of 1..V for k distinct landmarks
+        int[] ids = new int[V];
+        for (int v = 0; v < V; v++)
+            ids[v] = v + 1;
+        Random rnd = new Random(seed);
+        int[] landmarks = new int[k];
+        for (int i = 0; i < k; i++) {
+            int j = i + rnd.nextInt(V - i);
+            int t = ids[i];
+            ids[i] = ids[j];
+            ids[j] = t;
+            landmarks[i] = ids[i];
+        }
+
+        int kk = k;
+        int[] table = new int[(V + 1) * kk];
+        IntStream.range(0, kk).parallel().forEach(i -> {
+            int[] d = g.SPT_Dijkstra(landmarks[i], null);
+            for (int v = 1; v <= V; v++)
+                table[v * kk + i] = d[v];
+        });
+
+        int[] nearest = new int[V + 1];
+        IntStream.rangeClosed(1, V).parallel().forEach(v -> {
+            int r = Integer.MAX_VALUE;
+            for (int i = 0; i < kk; i++)
+                r = Math.min(r, table[v * kk + i]);
+            nearest[v] = r;
+        });
+
+        return new DistanceOracle(V, landmarks, table, nearest);
+    }
+
+    // Upper bound on d(u,v), never below the true distance
+    public long upper(int u, int v)
+    {
+        if (u == v)
+            return 0;
+        long best = Long.MAX_VALUE;
+        int a = u * k, b = v * k;
+        for (int i = 0; i < k; i++) {
+            int du = table[a + i], dv = table[b + i];
+            if (du != Integer.MAX_VALUE && dv != Integer.MAX_VALUE)
+                best = Math.min(best, (long) du + dv);
+        }
+        return best;
+    }
+
+    // Lower bound on d(u,v), never above the true distance
+    public int lower(int u, int v)
+    {
+        int best = 0;
+        int a = u * k, b = v * k;
+        for (int i = 0; i < k; i++) {
+            int du = table[a + i], dv = table[b + i];
+            if (du != Integer.MAX_VALUE && dv != Integer.MAX_VALUE)
+                best = Math.max(best, Math.abs(du - dv));
+        }
+        return best;
+    }
+
+    // Largest possible error of upper(u, v): 2 * min(r(u), r(v))
+    public long errorBound(int u, int v)
+    {
+        if (u == v)
+            return 0;
+        return 2L * Math.min(nearest[u], nearest[v]);
+    }
+
+    // Builds an oracle and measures query rate and stretch on random pairs
+    public static void main(String[] args) throws IOException
+    {
+        String fname;
+        Scanner scanned = new Scanner(System.in);
+
+        System.out.print("\nInput name of file with graph definition: ");
+        fname = scanned.nextLine();
+
+        System.out.print("\nNumber of landmarks: ");
+        int k = scanned.nextInt();
+
+        GraphCSR g = ParallelGraphBuilder.build(fname, true);
+
+        long t0 = System.nanoTime();
+        DistanceOracle o = build(g, k, Runtime.getRuntime().maxMemory() / 4, 1);
+        long t1 = System.nanoTime();
+        System.out.println("\nBuilt oracle with " + o.k + " landmarks in " + (t1 - t0) / 1000000 + " ms");
+
+        Random rnd = new Random(2);
+        int n = 1000000;
+        long check = 0;
+        t0 = System.nanoTime();
+        for (int q = 0; q < n; q++)
+            check += o.upper(1 + rnd.nextInt(g.V), 1 + rnd.nextInt(g.V));
+        t1 = System.nanoTime();
+        System.out.printf("%d queries in %d ms (%.0f per second, checksum %d)%n",
+            n, (t1 - t0) / 1000000, n / ((t1 - t0) / 1e9), check);
+
+        // stretch against exact distances from a few sources
+        double worst = 1, total = 0;
+        int pairs = 0;
+        for (int q = 0; q < 10; q++) {
+            int s = 1 + rnd.nextInt(g.V);
+            int[] d = g.SPT_Dijkstra(s, null);
+            for (int v = 1; v <= g.V; v++) {
+                if (d[v] == 0 || d[v] == Integer.MAX_VALUE)
+                    continue;
+                double stretch = (double) o.upper(s, v) / d[v];
+                worst = Math.max(worst, stretch);
+                total += stretch;
+                pairs++;
+            }
+        }
+        System.out.printf("Stretch over %d pairs: average %.3f, worst %.3f%n", pairs, total / pairs, worst);
+
+        scanned.close();
+    }
+}
@@ -0,0 +1,147 @@
+// Weighted graph in compressed sparse row (CSR) form
+// The neighbours of vertex v are adj[off[v]] .. adj[off[v+1]-1], with the
+// matching edge weights in wgt[]. Built by ParallelGraphBuilder for large graphs.
+//
+// The arrays are never modified after construction, and the algorithms keep
+// all of their working state in local arrays, so one GraphCSR can be shared
+// by any number of threads.
+
+class GraphCSR {
+    // V = number of vertices, numbered 1..V like Graph
+    // off[] has V+2 entries, off[V+1] is the number of adjacency slots
+    final int V;
+    final int[] off;
+    final int[] adj;
+    final int[] wgt;
+
+    GraphCSR(int _V, int[] _off, int[] _adj, int[] _wgt)
+    {
+        V = _V;
+        off = _off;
+        adj = _adj;
+        wgt = _wgt;
+    }
+
+    public int degree(int v)
+    {
+        return off[v + 1] - off[v];
+    }
+
+    // number of adjacency slots, twice the number of undirected edges
+    public int slots()
+    {
+        return off[V + 1];
+    }
+
+    // Breadth first search from s.
+    // Returns hops[], the number of edges on a shortest unweighted path from s
+    // (Integer.MAX_VALUE if unreachable). parent[] may be null.
+    public int[] breadthFirst(int s, int[] parent)
+    {
+        int v, u, k, head = 0, tail = 0;
+        int[] hops = new int[V + 1];
+        int[] queue = new int[V];
+
+        java.util.Arrays.fill(hops, Integer.MAX_VALUE);
+        if (parent != null)
+            java.util.Arrays.fill(parent, 0);
+
+        hops[s] = 0;
+        queue[tail++] = s;
+
+        while (head < tail) {
+            v = queue[head++];
+            for (k = off[v]; k < off[v + 1]; k++) {
+                u = adj[k];
+                if (hops[u] == Integer.MAX_VALUE) {
+                    hops[u] = hops[v] + 1;
+                    if (parent != null)
+                        parent[u] = v;
+                    queue[tail++] = u;
+                }
+            }
+        }
+        return hops;
+    }
+
+    // Prim's algorithm from s.
+    // Returns key[], where key[v] is the weight of the tree edge parent[v]--v
+    // (0 for s, Integer.MAX_VALUE if v is not reachable from s).
+    // parent[] may be null; parent[v] == 0 for s and unreachable vertices.
+    public int[] MST_Prim(int s, int[] parent)
+    {
+        int v, u, k;
+        int[] key = new int[V + 1];
+        int[] hPos = new int[V + 1];
+        boolean[] inTree = new boolean[V + 1];
+
+        for (v = 1; v <= V; v++)
+            key[v] = Integer.MAX_VALUE;
+        if (parent != null)
+            java.util.Arrays.fill(parent, 0);
+
+        key[s] = 0;
+        Heap h = new Heap(V, key, hPos);
+        h.insert(s);
+
+        while (!h.isEmpty()) {
+            v = h.remove();
+            inTree[v] = true;
+
+            for (k = off[v]; k < off[v + 1]; k++) {
+                u = adj[k];
+                if (!inTree[u] && wgt[k] < key[u]) {
+                    key[u] = wgt[k];
+                    if (parent != null)
+                        parent[u] = v;
+                    if (hPos[u] == 0)
+                        h.insert(u);
+                    else
+                        h.siftUp(hPos[u]);
+                }
+            }
+        }
+        return key;
+    }
+
+    // Dijkstra's algorithm from s.
+    // Returns dist[], Integer.MAX_VALUE for vertices not reachable from s.
+    // parent[] may be null; parent[v] == 0 for s and unreachable vertices.
+    // Sums are taken in long, so a distance too large for an int is left at
+    // Integer.MAX_VALUE instead of wrapping negative.
+    public int[] SPT_Dijkstra(int s, int[] parent)
+    {
+        int v, u, k;
+        long d;
+        int[] dist = new int[V + 1];
+        int[] hPos = new int[V + 1];
+
+        for (v = 1; v <= V; v++)
+            dist[v] = Integer.MAX_VALUE;
+        if (parent != null)
+            java.util.Arrays.fill(parent, 0);
+
+        dist[s] = 0;
+        Heap pq = new Heap(V, dist, hPos);
+        pq.insert(s);
+
+        while (!pq.isEmpty()) {
+            v = pq.remove();
+
+            for (k = off[v]; k < off[v + 1]; k++) {
+                u = adj[k];
+                d = (long) dist[v] + wgt[k];
+                if (d < dist[u]) {
+                    dist[u] = (int) d;
+                    if (parent != null)
+                        parent[u] = v;
+                    if (hPos[u] == 0)
+                        pq.insert(u);
+                    else
+                        pq.siftUp(hPos[u]);
+                }
+            }
+        }
+        return dist;
+    }
+}
@@ -0,0 +1,356 @@
+// Coordinator for distributed SSSP and MST across local worker JVMs
+// Partitions the graph with GraphPartitioner, starts one ShardWorker process
+// per shard on localhost and drives them in bulk synchronous supersteps:
+//
+//  - SSSP: each worker runs Dijkstra over its own vertices and returns the
+//    improved distances of remote vertices as one batch per superstep. The
+//    coordinator keeps the best message per vertex and routes the batches to
+//    the owning workers, until a superstep produces no messages.
+//  - MST: Boruvka. Each round every worker reports the lightest edge leaving
+//    each set (as seen from its own vertices), the coordinator picks the
+//    global minimum per set, merges the sets and broadcasts the merges.
+//
+// Every read from a worker times out after graph.timeout ms (default 60000,
+// set with -Dgraph.timeout=...), and a worker that exits has its socket
+// closed at once, so a dead or stuck worker fails the run with an error
+// naming it instead of hanging the coordinator.
+//
+// usage: GraphCoordinator <graph file> <workers> <source vertex> [hash|bfs]
+// (hash is the default; bfs builds the whole graph in this JVM, see GraphPartitioner)
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+
+class GraphCoordinator {
+    static final int TIMEOUT = Integer.getInteger("graph.timeout", 60000);
+
+    private final int V, k;
+    private final int[] owner;
+    private final Process[] procs;
+    private final DataInputStream[] in;
+    private final DataOutputStream[] out;
+
+    int supersteps, rounds;
+
+    // socks[w] and procs[w] belong to worker w, as set up by launchWorkers
+    GraphCoordinator(int[] _owner, int _k, Socket[] socks, Process[] _procs) throws IOException
+    {
+        owner = _owner;
+        V = _owner.length - 1;
+        k = _k;
+        procs = _procs;
+        in = new DataInputStream[k];
+        out = new DataOutputStream[k];
+
+        for (int w = 0; w < k; w++) {
+            Socket sock = socks[w];
+            sock.setSoTimeout(TIMEOUT);
+            in[w] = new DataInputStream(new BufferedInputStream(sock.getInputStream()));
+            out[w] = new DataOutputStream(new BufferedOutputStream(sock.getOutputStream()));
+
+            // a worker that dies mid-run gets its socket closed, which ends a
+            // blocked read right away instead of after the timeout
+            procs[w].onExit().thenRun(() -> {
+                try {
+                    sock.close();
+                } catch (IOException x) {
+                }
+            });
+        }
+    }
+
+    // Distributed Dijkstra/Bellman-Ford from s. Fills dist[] and parent[].
+    void SPT(int s, int[] dist, int[] parent) throws IOException
+    {
+        List<Map<Integer, int[]>> inbox = newInboxes();
+        inbox.get(owner[s]).put(s, new int[] { 0, 0 });
+
+        for (int w = 0; w < k; w++) {
+            out[w].writeInt(ShardWorker.OP_SSSP_START);
+            out[w].writeInt(s);
+        }
+
+        supersteps = 0;
+        boolean active = true;
+        while (active) {
+            supersteps++;
+
+            // send every batch first so the workers compute concurrently
+            boolean[] sent = new boolean[k];
+            for (int w = 0; w < k; w++) {
+                Map<Integer, int[]> batch = inbox.get(w);
+                if (batch.isEmpty())
+                    continue;
+                out[w].writeInt(ShardWorker.OP_SSSP_STEP);
+                out[w].writeInt(batch.size());
+                for (Map.Entry<Integer, int[]> m : batch.entrySet()) {
+                    out[w].writeInt(m.getKey());
+                    out[w].writeInt(m.getValue()[0]);
+                    out[w].writeInt(m.getValue()[1]);
+                }
+                flush(w);
+                sent[w] = true;
+            }
+
+            // gather the replies, keeping the best message per vertex
+            inbox = newInboxes();
+            active = false;
+            for (int w = 0; w < k; w++) {
+                if (!sent[w])
+                    continue;
+                int n = readInt(w);
+                for (int i = 0; i < n; i++) {
+                    int v = readInt(w), d = readInt(w), from = readInt(w);
+                    Map<Integer, int[]> box = inbox.get(owner[v]);
+                    int[] m = box.get(v);
+                    if (m == null || d < m[0])
+                        box.put(v, new int[] { d, from });
+                    active = true;
+                }
+            }
+        }
+
+        for (int w = 0; w < k; w++) {
+            out[w].writeInt(ShardWorker.OP_SSSP_RESULT);
+            flush(w);
+        }
+        for (int w = 0; w < k; w++) {
+            int n = readInt(w);
+            for (int i = 0; i < n; i++) {
+                int v = readInt(w);
+                dist[v] = readInt(w);
+                parent[v] = readInt(w);
+            }
+        }
+    }
+
+    // Distributed Boruvka. Returns the minimum spanning forest as {u, v, wgt} edges.
+    List<int[]> MST() throws IOException
+    {
+        UnionFindSets sets = new UnionFindSets(V);
+        List<int[]> mst = new ArrayList<>();
+        List<int[]> merges = new ArrayList<>();
+
+        for (int w = 0; w < k; w++)
+            out[w].writeInt(ShardWorker.OP_MST_START);
+
+        rounds = 0;
+        while (true) {
+            rounds++;
+            for (int w = 0; w < k; w++) {
+                out[w].writeInt(ShardWorker.OP_MST_ROUND);
+                out[w].writeInt(merges.size());
+                for (int[] e : merges) {
+                    out[w].writeInt(e[0]);
+                    out[w].writeInt(e[1]);
+                }
+                flush(w);
+            }
+
+            Map<Integer, int[]> best = new HashMap<>();
+            for (int w = 0; w < k; w++) {
+                int n = readInt(w);
+                for (int i = 0; i < n; i++) {
+                    int set = readInt(w);
+                    int[] e = { readInt(w), readInt(w), readInt(w) };
+                    int[] b = best.get(set);
+                    if (b == null || ShardWorker.lighter(e, b))
+                        best.put(set, e);
+                }
+            }
+
+            // the workers replay these unions in exactly this order
+            merges = new ArrayList<>();
+            for (int[] e : best.values()) {
+                if (sets.union(e[0], e[1])) {
+                    mst.add(e);
+                    merges.add(e);
+                }
+            }
+            if (merges.isEmpty())
+                return mst;
+        }
+    }
+
+    void quit() throws IOException
+    {
+        for (int w = 0; w < k; w++) {
+            out[w].writeInt(ShardWorker.OP_QUIT);
+            flush(w);
+        }
+    }
+
+    private int readInt(int w) throws IOException
+    {
+        try {
+            return in[w].readInt();
+        } catch (IOException x) {
+            throw failed(w, x);
+        }
+    }
+
+    private void flush(int w) throws IOException
+    {
+        try {
+            out[w].flush();
+        } catch (IOException x) {
+            throw failed(w, x);
+        }
+    }
+
+    // an error that says which worker failed and, where it can tell, why
+    private IOException failed(int w, IOException x)
+    {
+        String why;
+        if (!procs[w].isAlive())
+            why = "exited with code " + procs[w].exitValue();
+        else if (x instanceof SocketTimeoutException)
+            why = "sent nothing for " + TIMEOUT + " ms";
+        else
+            why = "connection failed: " + x.getMessage();
+        return new IOException("Worker " + w + " " + why, x);
+    }
+
+    private List<Map<Integer, int[]>> newInboxes()
+    {
+        List<Map<Integer, int[]>> boxes = new ArrayList<>();
+        for (int w = 0; w < k; w++)
+            boxes.add(new HashMap<>());
+        return boxes;
+    }
+
+    // Starts k ShardWorker JVMs with this JVM's classpath into procs[] and waits
+    // for them to connect. Workers connect in any order and introduce themselves
+    // by id, so socks[w] ends up as worker w's socket. Fails naming the worker
+    // if one exits first, or if they are not all connected within the timeout.
+    static void launchWorkers(String prefix, int k, ServerSocket server, Socket[] socks, Process[] procs) throws IOException
+    {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String cp = System.getProperty("java.class.path");
+
+        for (int w = 0; w < k; w++) {
+            ProcessBuilder pb = new ProcessBuilder(java, "-cp", cp, "ShardWorker",
+                prefix + ".shard" + w, prefix + ".owner",
+                Integer.toString(server.getLocalPort()), Integer.toString(w));
+            pb.inheritIO();
+            procs[w] = pb.start();
+        }
+
+        long deadline = System.nanoTime() + TIMEOUT * 1000000L;
+        server.setSoTimeout(1000);
+        for (int connected = 0; connected < k; ) {
+            Socket sock;
+            try {
+                sock = server.accept();
+            } catch (SocketTimeoutException x) {
+                for (int w = 0; w < k; w++)
+                    if (socks[w] == null && !procs[w].isAlive())
+                        throw new IOException("Worker " + w + " exited with code "
+                            + procs[w].exitValue() + " before connecting");
+                if (System.nanoTime() > deadline)
+                    throw new IOException("Worker " + firstMissing(socks)
+                        + " did not connect within " + TIMEOUT + " ms");
+                continue;
+            }
+
+            sock.setSoTimeout(TIMEOUT);
+            int id = new DataInputStream(sock.getInputStream()).readInt();
+            if (id < 0 || id >= k || socks[id] != null)
+                throw new IOException("Unexpected worker id " + id);
+            socks[id] = sock;
+            connected++;
+        }
+    }
+
+    private static int firstMissing(Socket[] socks)
+    {
+        int w = 0;
+        while (socks[w] != null)
+            w++;
+        return w;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        String fname;
+        int k, s;
+        boolean bfs;
+
+        if (args.length >= 3) {
+            fname = args[0];
+            k = Integer.parseInt(args[1]);
+            s = Integer.parseInt(args[2]);
+            bfs = args.length > 3 && args[3].equals("bfs");
+        } else {
+            Scanner scanned = new Scanner(System.in);
+            System.out.print("\nInput name of file with graph definition: ");
+            fname = scanned.nextLine();
+            System.out.print("\nNumber of worker processes: ");
+            k = scanned.nextInt();
+            System.out.print("\nEnter the vertex you want to start at (I.E A = 1, B = 2 etc): ");
+            s = scanned.nextInt();
+            scanned.nextLine();
+            System.out.print("\nPartition by (1 = hash, default; 2 = BFS regions, whole graph in memory): ");
+            bfs = scanned.nextLine().trim().equals("2");
+        }
+
+        String prefix = fname + ".part";
+        int[] owner = GraphPartitioner.partition(fname, k, bfs, prefix);
+        int V = owner.length - 1;
+
+        Socket[] socks = new Socket[k];
+        Process[] procs = new Process[k];
+        int[] dist = new int[V + 1];
+        int[] parent = new int[V + 1];
+        GraphCoordinator c;
+        List<int[]> mst;
+        long t0, t1, t2;
+
+        try {
+            try (ServerSocket server = new ServerSocket(0, k, InetAddress.getLoopbackAddress())) {
+                launchWorkers(prefix, k, server, socks, procs);
+            }
+            c = new GraphCoordinator(owner, k, socks, procs);
+
+            t0 = System.nanoTime();
+            c.SPT(s, dist, parent);
+            t1 = System.nanoTime();
+            mst = c.MST();
+            t2 = System.nanoTime();
+            c.quit();
+        } catch (IOException x) {
+            // don't leave the other workers waiting for a coordinator that is gone
+            for (Process p : procs)
+                if (p != null)
+                    p.destroyForcibly();
+            throw x;
+        }
+
+        System.out.println("\nShortest path tree from " + s + " in " + c.supersteps
+            + " supersteps, " + (t1 - t0) / 1000000 + " ms:");
+        if (V <= 100) {
+            for (int v = 1; v <= V; v++)
+                System.out.println("Vertex " + v + " parent " + parent[v] + " distance "
+                    + (dist[v] == Integer.MAX_VALUE ? "unreachable" : Integer.toString(dist[v])));
+        }
+
+        long wgt_sum = 0;
+        for (int[] e : mst)
+            wgt_sum += e[2];
+        System.out.println("\nMinimum spanning forest: " + mst.size() + " edges, weight "
+            + wgt_sum + ", " + c.rounds + " Boruvka rounds, " + (t2 - t1) / 1000000 + " ms");
+
+        for (int w = 0; w < k; w++) {
+            socks[w].close();
+            procs[w].waitFor();
+        }
+    }
+}
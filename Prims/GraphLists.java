@@ -34,9 +34,8 @@ class Heap
     public void siftUp( int k) 
     {
         int v = a[k];
-        a[0] = 0; // initialize a[0] to be a sentinel
     
-        while (dist[v] < dist[a[k / 2]]) 
+        while (k > 1 && dist[v] < dist[a[k / 2]]) 
         {
             a[k] = a[k / 2];
             hPos[a[k]] = k;
@@ -52,7 +51,7 @@ class Heap
        
         v = a[k];  
 
-        while(k * 2 < N) 
+        while(k * 2 <= N) 
         {
             j = k * 2;
             if(j < N && dist[ a[j] ] > dist[ a[j+1] ])
@@ -63,8 +62,8 @@ class Heap
             {
                 break;
             }
-            hPos[ a[k] ] = j;
             a[k] = a[j];
+            hPos[ a[k] ] = k;
             k = j;
         }
         hPos[v] = k;
@@ -80,11 +79,9 @@ class Heap
     public int remove() 
     {   
         int v = a[1];
-        hPos[v] = 0; // v is no longer in heap
-        a[N+1] = 0;  // put null node into empty spot
-        
         a[1] = a[N--];
         siftDown(1);
+        hPos[v] = 0; // v is no longer in heap (siftDown re-marks it when it was the last)
         
         return v;
     }
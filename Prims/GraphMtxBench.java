@@ -0,0 +1,102 @@
+// Benchmark of the dense matrix Prim/Dijkstra against the heap based ones
+// Generates a random graph where each vertex pair is an edge with the given
+// probability, then times GraphCSR.MST_Prim / SPT_Dijkstra (binary heap,
+// O(E log V)) against GraphMtx (O(V^2) scans, scalar and SIMD).
+//
+// run with: java --add-modules jdk.incubator.vector GraphMtxBench [V] [density] [runs]
+// (the SIMD rows need simd/GraphMtxVector.java compiled, see that file)
+
+import java.util.Arrays;
+import java.util.Random;
+
+class GraphMtxBench {
+    public static void main(String[] args)
+    {
+        int V = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        double density = args.length > 1 ? Double.parseDouble(args[1]) : 0.5;
+        int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Random rnd = new Random(42);
+        int[][] m = new int[V + 1][V + 1];
+        int E = 0;
+        for (int i = 1; i <= V; i++)
+            for (int j = i + 1; j <= V; j++)
+                if (rnd.nextDouble() < density) {
+                    m[i][j] = m[j][i] = 1 + rnd.nextInt(1000);
+                    E++;
+                }
+
+        int[] eu = new int[E], ev = new int[E], ew = new int[E];
+        E = 0;
+        for (int i = 1; i <= V; i++)
+            for (int j = i + 1; j <= V; j++)
+                if (m[i][j] != 0) {
+                    eu[E] = i;
+                    ev[E] = j;
+                    ew[E++] = m[i][j];
+                }
+
+        GraphCSR csr = ParallelGraphBuilder.fromEdges(V, eu, ev, ew, false);
+        GraphMtx mtx = new GraphMtx(V, m);
+        int[] parent = new int[V + 1];
+
+        System.out.println("V = " + V + ", E = " + E + ", SIMD kernels "
+            + (GraphMtx.SIMD ? "enabled" : "unavailable (build simd/GraphMtxVector.java, run with --add-modules jdk.incubator.vector)"));
+
+        long heapPrim = Long.MAX_VALUE, heapDijk = Long.MAX_VALUE;
+        long scalarPrim = Long.MAX_VALUE, scalarDijk = Long.MAX_VALUE;
+        long simdPrim = Long.MAX_VALUE, simdDijk = Long.MAX_VALUE;
+        boolean same = true;
+
+        for (int r = 0; r < runs; r++) {
+            long t0 = System.nanoTime();
+            int[] k1 = csr.MST_Prim(1, parent);
+            long t1 = System.nanoTime();
+            int[] d1 = csr.SPT_Dijkstra(1, parent);
+            long t2 = System.nanoTime();
+            int[] k2 = mtx.MST_Prim(1, parent, false);
+            long t3 = System.nanoTime();
+            int[] d2 = mtx.SPT_Dijkstra(1, parent, false);
+            long t4 = System.nanoTime();
+
+            heapPrim = Math.min(heapPrim, t1 - t0);
+            heapDijk = Math.min(heapDijk, t2 - t1);
+            scalarPrim = Math.min(scalarPrim, t3 - t2);
+            scalarDijk = Math.min(scalarDijk, t4 - t3);
+            same &= sum(k1) == sum(k2) && Arrays.equals(d1, d2);
+
+            if (GraphMtx.SIMD) {
+                t0 = System.nanoTime();
+                int[] k3 = mtx.MST_Prim(1, parent, true);
+                t1 = System.nanoTime();
+                int[] d3 = mtx.SPT_Dijkstra(1, parent, true);
+                t2 = System.nanoTime();
+
+                simdPrim = Math.min(simdPrim, t1 - t0);
+                simdDijk = Math.min(simdDijk, t2 - t1);
+                same &= sum(k1) == sum(k3) && Arrays.equals(d1, d3);
+            }
+        }
+
+        System.out.println("\nBest of " + runs + " runs (ms)     Prim   Dijkstra");
+        report("heap, adjacency lists", heapPrim, heapDijk);
+        report("dense matrix, scalar", scalarPrim, scalarDijk);
+        if (GraphMtx.SIMD)
+            report("dense matrix, SIMD", simdPrim, simdDijk);
+        System.out.println("\nSame MST weight and distances: " + same);
+    }
+
+    private static long sum(int[] key)
+    {
+        long s = 0;
+        for (int i = 1; i < key.length; i++)
+            if (key[i] != Integer.MAX_VALUE)
+                s += key[i];
+        return s;
+    }
+
+    private static void report(String name, long prim, long dijk)
+    {
+        System.out.printf("%-26s %8.1f %10.1f%n", name, prim / 1e6, dijk / 1e6);
+    }
+}
@@ -0,0 +1,15 @@
+// Row kernels for the dense O(V^2) Prim and Dijkstra in GraphMtx
+// GraphMtx runs its own scalar loops; simd/GraphMtxVector implements this
+// with the Vector API and is loaded only when it was built and is usable.
+// All arrays are indexed 1..V, done[i] != 0 marks vertices already settled.
+
+interface GraphMtxKernels {
+    // open vertex with the smallest dist, lowest index on ties, 0 if none is reachable
+    int minOpen(int[] dist, int[] done, int V);
+
+    // key[i] = row[i], parent[i] = v wherever i is open, row[i] != 0 and row[i] < key[i]
+    void relaxPrim(int[] row, int[] key, int[] done, int[] parent, int v, int V);
+
+    // dist[i] = dist[v] + row[i], parent[i] = v wherever i is open, row[i] != 0 and that is shorter
+    void relaxDijkstra(int[] row, int[] dist, int[] done, int[] parent, int v, int V);
+}
@@ -7,6 +7,7 @@ import java.util.Queue;
 import java.util.LinkedList;
 
 //Removed heap, mst, spt code etc for the Matrix code.
+//Dense O(V^2) Prim and Dijkstra are below, see simd/GraphMtxVector for the SIMD kernels.
 
 class GraphMtx {
     private int V, E;
@@ -44,6 +45,16 @@ class GraphMtx {
         }
     }
 
+    // graph from an adjacency matrix already in memory, e.g. generated graphs
+    GraphMtx(int _V, int[][] _adjMatrix) {
+        V = _V;
+        adjMatrix = _adjMatrix;
+        for (int i = 1; i <= V; i++)
+            for (int j = i + 1; j <= V; j++)
+                if (adjMatrix[i][j] != 0)
+                    E++;
+    }
+
     // convert vertex into char for pretty printing
     private char toChar(int u) {  
         return (char)(u + 64);
@@ -78,6 +89,113 @@ class GraphMtx {
         }
     }
 
+    // The Vector API kernels in simd/GraphMtxVector.java are loaded by name, so
+    // this folder still builds with plain javac. They are used when that file
+    // was compiled and the JVM was started with --add-modules jdk.incubator.vector,
+    // unless -Dgraph.scalar=true; otherwise the scalar loops below run.
+    static final GraphMtxKernels KERNELS = loadKernels();
+    static final boolean SIMD = KERNELS != null;
+
+    private static GraphMtxKernels loadKernels() {
+        if (Boolean.getBoolean("graph.scalar")
+                || !ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent())
+            return null;
+        try {
+            return (GraphMtxKernels) Class.forName("GraphMtxVector").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError x) {
+            return null;
+        }
+    }
+
+    // Dense Prim's algorithm from s: O(V^2) with no heap, which beats the heap
+    // based MST_Prim when E is close to V^2. Returns key[] and fills parent[]
+    // like GraphCSR.MST_Prim (0 for s, MAX_VALUE / 0 for unreachable vertices).
+    public int[] MST_Prim(int s, int[] parent) {
+        return MST_Prim(s, parent, SIMD);
+    }
+
+    public int[] MST_Prim(int s, int[] parent, boolean simd) {
+        simd &= SIMD;
+        int[] key = new int[V + 1];
+        int[] done = new int[V + 1];
+
+        for (int v = 1; v <= V; v++) {
+            key[v] = Integer.MAX_VALUE;
+            parent[v] = 0;
+        }
+        key[s] = 0;
+
+        for (int n = 0; n < V; n++) {
+            int v = simd ? KERNELS.minOpen(key, done, V) : minOpen(key, done);
+            if (v == 0)
+                break;
+            done[v] = 1;
+
+            if (simd) {
+                KERNELS.relaxPrim(adjMatrix[v], key, done, parent, v, V);
+            } else {
+                int[] row = adjMatrix[v];
+                for (int i = 1; i <= V; i++) {
+                    if (row[i] != 0 && done[i] == 0 && row[i] < key[i]) {
+                        key[i] = row[i];
+                        parent[i] = v;
+                    }
+                }
+            }
+        }
+        return key;
+    }
+
+    // Dense Dijkstra's algorithm from s, O(V^2). Returns dist[] and fills parent[].
+    public int[] SPT_Dijkstra(int s, int[] parent) {
+        return SPT_Dijkstra(s, parent, SIMD);
+    }
+
+    public int[] SPT_Dijkstra(int s, int[] parent, boolean simd) {
+        simd &= SIMD;
+        int[] dist = new int[V + 1];
+        int[] done = new int[V + 1];
+
+        for (int v = 1; v <= V; v++) {
+            dist[v] = Integer.MAX_VALUE;
+            parent[v] = 0;
+        }
+        dist[s] = 0;
+
+        for (int n = 0; n < V; n++) {
+            int v = simd ? KERNELS.minOpen(dist, done, V) : minOpen(dist, done);
+            if (v == 0)
+                break;
+            done[v] = 1;
+
+            if (simd) {
+                KERNELS.relaxDijkstra(adjMatrix[v], dist, done, parent, v, V);
+            } else {
+                int[] row = adjMatrix[v];
+                long dv = dist[v];  // long, so a sum past Integer.MAX_VALUE is never shorter
+                for (int i = 1; i <= V; i++) {
+                    if (row[i] != 0 && done[i] == 0 && dv + row[i] < dist[i]) {
+                        dist[i] = (int) (dv + row[i]);
+                        parent[i] = v;
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+
+    // open vertex with the smallest value, 0 if none is reachable
+    private int minOpen(int[] dist, int[] done) {
+        int v = 0, min = Integer.MAX_VALUE;
+        for (int i = 1; i <= V; i++) {
+            if (done[i] == 0 && dist[i] < min) {
+                min = dist[i];
+                v = i;
+            }
+        }
+        return v;
+    }
+
     public void breadthFirst(int s) {
         visited = new int[V + 1];
         Queue<Integer> queue = new LinkedList<>();
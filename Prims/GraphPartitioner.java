@@ -0,0 +1,219 @@
+// Edge-cut partitioning of a graph definition file into shards
+// Every vertex gets an owning shard, either by hashing its id or by growing
+// k BFS regions of roughly V/k vertices. Shard i holds every edge with an
+// endpoint owned by i, so an edge cut between two shards appears in both.
+//
+// Hash partitioning is the default and works at any size: it streams the
+// file and keeps only owner[], 4 bytes per vertex. BFS regions cut fewer
+// edges on graphs with locality (roads, meshes), but the BFS runs over a
+// CSR of the whole graph built in this one JVM, about 16 * E + 20 * V
+// bytes, so it is only for graphs that fit in a single heap. partition()
+// checks this up front and fails asking for hash partitioning instead.
+//
+// Output, for a given prefix:
+//   prefix.owner     "V k" line, then the owning shard of vertices 1..V, one per line
+//   prefix.shard<i>  a normal graph definition file ("V Ei", then "u v wgt" lines)
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Scanner;
+
+class GraphPartitioner {
+
+    // Partitions graphFile into k shards and returns owner[v] for v = 1..V.
+    // Hash partitioning streams the file; BFS regions need the graph in memory once.
+    static int[] partition(String graphFile, int k, boolean bfs, String prefix) throws IOException
+    {
+        int[] owner;
+        if (bfs) {
+            checkFits(graphFile);
+            owner = bfsRegions(ParallelGraphBuilder.build(graphFile, false), k);
+        } else {
+            int V;
+            try (BufferedReader reader = new BufferedReader(new FileReader(graphFile))) {
+                V = Integer.parseInt(reader.readLine().trim().split(" +")[0]);
+            }
+            owner = new int[V + 1];
+            for (int v = 1; v <= V; v++)
+                owner[v] = hashOwner(v, k);
+        }
+
+        writeOwners(prefix + ".owner", owner, k);
+        writeShards(graphFile, owner, k, prefix);
+        return owner;
+    }
+
+    // Fails early, before any work is done, if the CSR for BFS regions
+    // (off, adj and wgt, the build's atomic counters, owner[] and the queue)
+    // would not fit in what is left of the heap.
+    private static void checkFits(String graphFile) throws IOException
+    {
+        long[] header = new long[2];
+        try (FileChannel ch = FileChannel.open(Paths.get(graphFile), StandardOpenOption.READ)) {
+            ParallelGraphBuilder.readHeader(ch, header);
+        }
+        long need = 16 * header[1] + 20 * header[0];
+
+        Runtime rt = Runtime.getRuntime();
+        long free = rt.maxMemory() - (rt.totalMemory() - rt.freeMemory());
+        if (need > free)
+            throw new IllegalArgumentException("BFS regions for " + graphFile + " need about "
+                + (need >> 20) + " MB of heap, only " + (free >> 20)
+                + " MB is free; use hash partitioning or a larger -Xmx");
+    }
+
+    // scrambles the id so runs of consecutive ids spread over all shards
+    static int hashOwner(int v, int k)
+    {
+        int h = v * 0x9E3779B9;
+        h ^= h >>> 16;
+        return (h & 0x7fffffff) % k;
+    }
+
+    // Grows region 0 by BFS from the lowest unassigned vertex until it holds
+    // ceil(V/k) vertices, then region 1, and so on. When a BFS runs dry before
+    // the region is full it restarts from the next unassigned vertex.
+    static int[] bfsRegions(GraphCSR g, int k)
+    {
+        int V = g.V;
+        int size = (V + k - 1) / k;
+        int[] owner = new int[V + 1];
+        int[] queue = new int[V];
+        int head = 0, tail = 0, next = 1, region = 0, count = 0;
+
+        java.util.Arrays.fill(owner, -1);
+
+        while (next <= V) {
+            if (head == tail) {
+                while (next <= V && owner[next] != -1)
+                    next++;
+                if (next > V)
+                    break;
+                owner[next] = region;
+                queue[tail++] = next;
+                if (++count == size) {
+                    region++;
+                    count = 0;
+                    head = tail;
+                }
+                continue;
+            }
+
+            int v = queue[head++];
+            for (int e = g.off[v]; e < g.off[v + 1]; e++) {
+                int u = g.adj[e];
+                if (owner[u] == -1) {
+                    owner[u] = region;
+                    queue[tail++] = u;
+                    if (++count == size) {
+                        // region full, the next region starts from scratch
+                        region++;
+                        count = 0;
+                        head = tail;
+                        break;
+                    }
+                }
+            }
+        }
+        return owner;
+    }
+
+    static void writeOwners(String ownerFile, int[] owner, int k) throws IOException
+    {
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(ownerFile)))) {
+            int V = owner.length - 1;
+            out.println(V + " " + k);
+            for (int v = 1; v <= V; v++)
+                out.println(owner[v]);
+        }
+    }
+
+    static int[] readOwners(String ownerFile) throws IOException
+    {
+        try (BufferedReader reader = new BufferedReader(new FileReader(ownerFile))) {
+            int V = Integer.parseInt(reader.readLine().trim().split(" +")[0]);
+            int[] owner = new int[V + 1];
+            for (int v = 1; v <= V; v++)
+                owner[v] = Integer.parseInt(reader.readLine().trim());
+            return owner;
+        }
+    }
+
+    // Streams the edges once into k shard files. The header is written with
+    // room to spare and patched with the real edge count at the end.
+    private static void writeShards(String graphFile, int[] owner, int k, String prefix) throws IOException
+    {
+        int V = owner.length - 1;
+        long[] count = new long[k];
+        BufferedWriter[] out = new BufferedWriter[k];
+        String blank = String.format("%-40s\n", "");
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(graphFile))) {
+            for (int i = 0; i < k; i++) {
+                out[i] = new BufferedWriter(new FileWriter(prefix + ".shard" + i), 1 << 16);
+                out[i].write(blank);
+            }
+
+            // exactly the E edge lines of the header, as ParallelGraphBuilder reads them
+            String splits = " +";
+            String line = reader.readLine();
+            long E = Long.parseLong(line.trim().split(splits)[1]);
+            for (long e = 0; e < E && (line = reader.readLine()) != null; ) {
+                line = line.trim();
+                if (line.isEmpty())
+                    continue;
+                e++;
+                String[] parts = line.split(splits);
+                int a = owner[Integer.parseInt(parts[0])];
+                int b = owner[Integer.parseInt(parts[1])];
+
+                out[a].write(line);
+                out[a].write('\n');
+                count[a]++;
+                if (b != a) {
+                    out[b].write(line);
+                    out[b].write('\n');
+                    count[b]++;
+                }
+            }
+        } finally {
+            for (int i = 0; i < k; i++)
+                if (out[i] != null)
+                    out[i].close();
+        }
+
+        for (int i = 0; i < k; i++) {
+            try (RandomAccessFile f = new RandomAccessFile(prefix + ".shard" + i, "rw")) {
+                f.writeBytes(V + " " + count[i]);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        String fname;
+        Scanner scanned = new Scanner(System.in);
+
+        System.out.print("\nInput name of file with graph definition: ");
+        fname = scanned.nextLine();
+
+        System.out.print("\nNumber of shards: ");
+        int k = scanned.nextInt();
+        scanned.nextLine();
+
+        System.out.print("\nPartition by (1 = hash, default; 2 = BFS regions, whole graph in memory): ");
+        boolean bfs = scanned.nextLine().trim().equals("2");
+
+        int[] owner = partition(fname, k, bfs, fname);
+
+        int[] size = new int[k];
+        for (int v = 1; v < owner.length; v++)
+            size[owner[v]]++;
+        for (int i = 0; i < k; i++)
+            System.out.println(fname + ".shard" + i + ": " + size[i] + " vertices");
+
+        scanned.close();
+    }
+}
@@ -0,0 +1,231 @@
+// Vertex reordering of a GraphCSR for cache locality
+// Relabels the vertices by reverse Cuthill-McKee, BFS order or degree, so that
+// vertices which are neighbours also sit close together in dist[], hPos[] etc.
+// The relabelled graph keeps both directions of the mapping, so that results
+// computed on it can be translated back to the original vertex ids.
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.stream.IntStream;
+
+class GraphReorder {
+    final GraphCSR g;          // graph with the new vertex ids
+    final int[] newToOld;      // newToOld[new id] = original id
+    final int[] oldToNew;      // oldToNew[original id] = new id
+
+    private GraphReorder(GraphCSR _g, int[] _newToOld, int[] _oldToNew)
+    {
+        g = _g;
+        newToOld = _newToOld;
+        oldToNew = _oldToNew;
+    }
+
+    // Reverse Cuthill-McKee: BFS from a minimum degree vertex of each
+    // component, visiting neighbours in increasing degree, then reversed.
+    // Keeps the bandwidth of the adjacency small.
+    static GraphReorder rcm(GraphCSR g)
+    {
+        int V = g.V;
+        int[] order = new int[V + 1];
+        boolean[] placed = new boolean[V + 1];
+        int head = 1, tail = 1;
+
+        // candidate start vertices, lowest degree first
+        int[] starts = byDegree(g, true);
+
+        for (int i = 1; i <= V; i++) {
+            int s = starts[i];
+            if (placed[s])
+                continue;
+            placed[s] = true;
+            order[tail++] = s;
+
+            while (head < tail) {
+                int v = order[head++];
+                int first = tail;
+                for (int k = g.off[v]; k < g.off[v + 1]; k++) {
+                    int u = g.adj[k];
+                    if (!placed[u]) {
+                        placed[u] = true;
+                        order[tail++] = u;
+                    }
+                }
+                sortByDegree(g, order, first, tail);
+            }
+        }
+
+        // reverse
+        for (int i = 1, j = V; i < j; i++, j--) {
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return relabel(g, order);
+    }
+
+    // Plain BFS order from s, then any other components in vertex order.
+    static GraphReorder bfs(GraphCSR g, int s)
+    {
+        int V = g.V;
+        int[] order = new int[V + 1];
+        boolean[] placed = new boolean[V + 1];
+        int head = 1, tail = 1;
+
+        for (int i = 0; i <= V; i++) {
+            int r = (i == 0) ? s : i;
+            if (placed[r])
+                continue;
+            placed[r] = true;
+            order[tail++] = r;
+
+            while (head < tail) {
+                int v = order[head++];
+                for (int k = g.off[v]; k < g.off[v + 1]; k++) {
+                    int u = g.adj[k];
+                    if (!placed[u]) {
+                        placed[u] = true;
+                        order[tail++] = u;
+                    }
+                }
+            }
+        }
+        return relabel(g, order);
+    }
+
+    // Highest degree first, so the hub vertices share a few cache lines.
+    static GraphReorder degreeSort(GraphCSR g)
+    {
+        return relabel(g, byDegree(g, false));
+    }
+
+    // Builds the relabelled CSR. newToOld[1..V] must be a permutation of 1..V.
+    // Each new row is sorted by neighbour id so scans walk memory forwards.
+    static GraphReorder relabel(GraphCSR g, int[] newToOld)
+    {
+        int V = g.V;
+        int[] oldToNew = new int[V + 1];
+        for (int i = 1; i <= V; i++)
+            oldToNew[newToOld[i]] = i;
+
+        int[] off = new int[V + 2];
+        for (int i = 1; i <= V; i++)
+            off[i + 1] = off[i] + g.degree(newToOld[i]);
+
+        int[] adj = new int[off[V + 1]];
+        int[] wgt = new int[off[V + 1]];
+
+        IntStream.rangeClosed(1, V).parallel().forEach(i -> {
+            int v = newToOld[i], lo = g.off[v], n = g.off[v + 1] - lo;
+            long[] row = new long[n];
+            for (int k = 0; k < n; k++)
+                row[k] = ((long) oldToNew[g.adj[lo + k]] << 32) | (g.wgt[lo + k] & 0xffffffffL);
+            Arrays.sort(row);
+            for (int k = 0; k < n; k++) {
+                adj[off[i] + k] = (int) (row[k] >>> 32);
+                wgt[off[i] + k] = (int) row[k];
+            }
+        });
+
+        return new GraphReorder(new GraphCSR(V, off, adj, wgt), newToOld, oldToNew);
+    }
+
+    public int toNew(int v)
+    {
+        return oldToNew[v];
+    }
+
+    public int toOld(int v)
+    {
+        return newToOld[v];
+    }
+
+    // Translates a per-vertex result such as dist[] or key[] back to original ids.
+    public int[] valuesToOld(int[] a)
+    {
+        int[] r = new int[a.length];
+        for (int i = 1; i <= g.V; i++)
+            r[newToOld[i]] = a[i];
+        return r;
+    }
+
+    // Translates a parent[] array back to original ids; 0 stays 0.
+    public int[] parentsToOld(int[] parent)
+    {
+        int[] r = new int[parent.length];
+        for (int i = 1; i <= g.V; i++)
+            r[newToOld[i]] = parent[i] == 0 ? 0 : newToOld[parent[i]];
+        return r;
+    }
+
+    // vertices 1..V ordered by degree, in order[1..V]
+    private static int[] byDegree(GraphCSR g, boolean ascending)
+    {
+        long[] key = new long[g.V];
+        for (int v = 1; v <= g.V; v++) {
+            long d = ascending ? g.degree(v) : Integer.MAX_VALUE - g.degree(v);
+            key[v - 1] = (d << 32) | v;
+        }
+        Arrays.parallelSort(key);
+
+        int[] order = new int[g.V + 1];
+        for (int i = 0; i < g.V; i++)
+            order[i + 1] = (int) key[i];
+        return order;
+    }
+
+    // sorts a[from..to-1] by increasing degree, ties by vertex id
+    private static void sortByDegree(GraphCSR g, int[] a, int from, int to)
+    {
+        int n = to - from;
+        if (n < 2)
+            return;
+        long[] key = new long[n];
+        for (int i = 0; i < n; i++)
+            key[i] = ((long) g.degree(a[from + i]) << 32) | a[from + i];
+        Arrays.sort(key);
+        for (int i = 0; i < n; i++)
+            a[from + i] = (int) key[i];
+    }
+
+    // Compares Dijkstra's algorithm on the file order and on a reordered graph
+    public static void main(String[] args) throws IOException
+    {
+        String fname;
+        Scanner scanned = new Scanner(System.in);
+
+        System.out.print("\nInput name of file with graph definition: ");
+        fname = scanned.nextLine();
+
+        System.out.print("\nEnter the vertex you want to start at (I.E A = 1, B = 2 etc): ");
+        int s = scanned.nextInt();
+
+        System.out.print("\nReordering (1 = RCM, 2 = BFS, 3 = degree): ");
+        int choice = scanned.nextInt();
+
+        GraphCSR g = ParallelGraphBuilder.build(fname, true);
+
+        long t0 = System.nanoTime();
+        GraphReorder r = choice == 2 ? bfs(g, s) : choice == 3 ? degreeSort(g) : rcm(g);
+        long t1 = System.nanoTime();
+        System.out.println("\nReordering took " + (t1 - t0) / 1000000 + " ms");
+
+        int[] dist = null, rdist = null;
+        long plain = Long.MAX_VALUE, reordered = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            t0 = System.nanoTime();
+            dist = g.SPT_Dijkstra(s, null);
+            t1 = System.nanoTime();
+            rdist = r.valuesToOld(r.g.SPT_Dijkstra(r.toNew(s), null));
+            long t2 = System.nanoTime();
+            plain = Math.min(plain, t1 - t0);
+            reordered = Math.min(reordered, t2 - t1);
+        }
+
+        System.out.println("Dijkstra, file order:  " + plain / 1000 + " us");
+        System.out.println("Dijkstra, reordered:   " + reordered / 1000 + " us");
+        System.out.println("Same distances: " + Arrays.equals(dist, rdist));
+
+        scanned.close();
+    }
+}
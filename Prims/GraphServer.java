@@ -0,0 +1,324 @@
+// Long-lived graph query server
+// Loads the graph once into an immutable GraphCSR and answers queries over
+// local HTTP, so JVM startup and file parsing are paid once instead of per query.
+//
+//   GET  /sssp?s=1        shortest path tree from s: "v dist parent" per vertex
+//   GET  /path?s=1&t=9    shortest path from s to t: distance, then the vertices
+//   GET  /bfs?s=1         breadth first tree from s: "v hops parent" per vertex
+//   GET  /mst?s=1         Prim's MST from s: total weight, then "v parent wgt"
+//   POST /batch           one query per line ("sssp 1", "path 1 9", "bfs 1", "mst 1");
+//                         queries sharing a kind and source are computed once
+//
+// Unreachable distances are printed as -1. At most maxInFlight requests are
+// computed at once; requests that cannot start within a second get a 503.
+//
+// Started on a GraphSnapshot (a .snap file) the server answers queries for the
+// stored sources from the snapshot immediately, and loads the graph itself
+// only when some other query needs it.
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+class GraphServer {
+    private final int V;
+    private final GraphSnapshot snap;
+    private GraphCSR g;
+    private final Semaphore inFlight;
+    private final HttpServer http;
+    private final ExecutorService executor;
+
+    GraphServer(GraphCSR _g, int port, int maxInFlight) throws IOException
+    {
+        this(_g.V, _g, null, port, maxInFlight);
+    }
+
+    GraphServer(GraphSnapshot _snap, int port, int maxInFlight) throws IOException
+    {
+        this(_snap.V, null, _snap, port, maxInFlight);
+    }
+
+    private GraphServer(int _V, GraphCSR _g, GraphSnapshot _snap, int port, int maxInFlight) throws IOException
+    {
+        V = _V;
+        g = _g;
+        snap = _snap;
+        inFlight = new Semaphore(maxInFlight);
+        executor = requestExecutor();
+
+        http = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        http.createContext("/", this::handle);
+        http.setExecutor(executor);
+    }
+
+    public void start()
+    {
+        http.start();
+    }
+
+    public void stop()
+    {
+        http.stop(0);
+        executor.shutdown();
+    }
+
+    public int port()
+    {
+        return http.getAddress().getPort();
+    }
+
+    // One virtual thread per request when the JDK has them (21+), otherwise
+    // a cached pool of platform threads; inFlight bounds the work either way.
+    static ExecutorService requestExecutor()
+    {
+        try {
+            return (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException x) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handle(HttpExchange ex) throws IOException
+    {
+        int status = 200;
+        String body;
+
+        try {
+            if (!inFlight.tryAcquire(1, TimeUnit.SECONDS)) {
+                status = 503;
+                body = "Too many queries in flight\n";
+            } else {
+                try {
+                    body = answer(ex);
+                } finally {
+                    inFlight.release();
+                }
+            }
+        } catch (IllegalArgumentException x) {
+            status = 400;
+            body = x.getMessage() + "\n";
+        } catch (IOException x) {
+            status = 500;
+            body = x.getMessage() + "\n";
+        } catch (RuntimeException x) {
+            // a bug or bad stored data; still answer, or the client waits forever
+            status = 500;
+            body = x.toString() + "\n";
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+            status = 503;
+            body = "Interrupted\n";
+        }
+
+        byte[] out = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        ex.sendResponseHeaders(status, out.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(out);
+        }
+    }
+
+    private String answer(HttpExchange ex) throws IOException
+    {
+        URI uri = ex.getRequestURI();
+        String path = uri.getPath();
+
+        if (path.equals("/batch")) {
+            if (!ex.getRequestMethod().equals("POST"))
+                throw new IllegalArgumentException("/batch expects a POST body");
+            String text = new String(ex.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            return batch(text);
+        }
+
+        Map<String, String> q = query(uri.getRawQuery());
+        String kind = checkKind(path.startsWith("/") ? path.substring(1) : path);
+        int s = vertex(q.get("s"));
+        int t = kind.equals("path") ? vertex(q.get("t")) : 0;
+
+        return format(kind, s, t, compute(kind, s));
+    }
+
+    // Runs every line of a batch, computing each distinct (kind, source) once.
+    // Answers are separated by "#" lines echoing the query.
+    String batch(String text) throws IOException
+    {
+        Map<String, int[][]> done = new HashMap<>();
+        StringBuilder sb = new StringBuilder();
+
+        for (String line : text.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty())
+                continue;
+
+            String[] parts = line.split(" +");
+            String kind = checkKind(parts[0]);
+            int s = vertex(parts.length > 1 ? parts[1] : null);
+            int t = kind.equals("path") ? vertex(parts.length > 2 ? parts[2] : null) : 0;
+
+            // path reuses the full shortest path tree from the same source
+            String base = kind.equals("path") ? "sssp" : kind;
+            int[][] r = done.get(base + " " + s);
+            if (r == null) {
+                r = compute(base, s);
+                done.put(base + " " + s, r);
+            }
+
+            sb.append("# ").append(line).append('\n');
+            sb.append(format(kind, s, t, r));
+        }
+        return sb.toString();
+    }
+
+    // checked before the vertices, so a bad kind is reported as such
+    private static String checkKind(String kind)
+    {
+        switch (kind) {
+            case "sssp":
+            case "path":
+            case "bfs":
+            case "mst":
+                return kind;
+            default:
+                throw new IllegalArgumentException("Unknown query: " + kind);
+        }
+    }
+
+    // returns { values, parent } for the query kind
+    private int[][] compute(String kind, int s) throws IOException
+    {
+        int[] parent = new int[V + 1];
+        int[] values;
+
+        switch (kind) {
+            case "sssp":
+            case "path":
+                if (stored(GraphSnapshot.SPT_DIST, GraphSnapshot.SPT_PARENT, s))
+                    return new int[][] { snap.section(GraphSnapshot.SPT_DIST), snap.section(GraphSnapshot.SPT_PARENT) };
+                values = graph().SPT_Dijkstra(s, parent);
+                break;
+            case "bfs":
+                values = graph().breadthFirst(s, parent);
+                break;
+            case "mst":
+                if (stored(GraphSnapshot.PRIM_KEY, GraphSnapshot.PRIM_PARENT, s))
+                    return new int[][] { snap.section(GraphSnapshot.PRIM_KEY), snap.section(GraphSnapshot.PRIM_PARENT) };
+                values = graph().MST_Prim(s, parent);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown query: " + kind);
+        }
+        return new int[][] { values, parent };
+    }
+
+    // true if the snapshot holds both the values and the parents computed from s
+    private boolean stored(int valuesId, int parentId, int s)
+    {
+        return snap != null && snap.source(valuesId) == s && snap.source(parentId) == s;
+    }
+
+    private synchronized GraphCSR graph() throws IOException
+    {
+        if (g == null)
+            g = snap.graph();
+        return g;
+    }
+
+    private String format(String kind, int s, int t, int[][] r)
+    {
+        int[] values = r[0], parent = r[1];
+        StringBuilder sb = new StringBuilder();
+
+        if (kind.equals("path")) {
+            if (values[t] == Integer.MAX_VALUE)
+                return "-1\n";
+            sb.append(values[t]).append('\n');
+
+            int n = 0;
+            int[] p = new int[V];
+            for (int v = t; v != 0; v = parent[v])
+                p[n++] = v;
+            while (n > 0)
+                sb.append(p[--n]).append(n > 0 ? ' ' : '\n');
+            return sb.toString();
+        }
+
+        if (kind.equals("mst")) {
+            long sum = 0;
+            for (int v = 1; v <= V; v++)
+                if (values[v] != Integer.MAX_VALUE)
+                    sum += values[v];
+            sb.append(sum).append('\n');
+        }
+
+        for (int v = 1; v <= V; v++) {
+            int d = values[v] == Integer.MAX_VALUE ? -1 : values[v];
+            sb.append(v).append(' ').append(d).append(' ').append(parent[v]).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private int vertex(String s)
+    {
+        int v;
+        try {
+            v = Integer.parseInt(s);
+        } catch (NumberFormatException x) {
+            throw new IllegalArgumentException("Missing or bad vertex: " + s);
+        }
+        if (v < 1 || v > V)
+            throw new IllegalArgumentException("Vertex " + v + " out of range 1.." + V);
+        return v;
+    }
+
+    private static Map<String, String> query(String raw)
+    {
+        Map<String, String> q = new HashMap<>();
+        if (raw == null)
+            return q;
+        for (String kv : raw.split("&")) {
+            int i = kv.indexOf('=');
+            if (i > 0)
+                q.put(kv.substring(0, i), kv.substring(i + 1));
+        }
+        return q;
+    }
+
+    // usage: GraphServer <graph file or .snap> [port] [max in-flight queries]
+    public static void main(String[] args) throws IOException
+    {
+        String fname;
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        int maxInFlight = args.length > 2 ? Integer.parseInt(args[2])
+            : 4 * Runtime.getRuntime().availableProcessors();
+
+        if (args.length > 0) {
+            fname = args[0];
+        } else {
+            Scanner scanned = new Scanner(System.in);
+            System.out.print("\nInput name of file with graph definition: ");
+            fname = scanned.nextLine();
+        }
+
+        GraphServer server;
+        if (fname.endsWith(".snap"))
+            server = new GraphServer(GraphSnapshot.open(fname), port, maxInFlight);
+        else
+            server = new GraphServer(ParallelGraphBuilder.build(fname, true), port, maxInFlight);
+        server.start();
+
+        System.out.println("Serving " + fname + " (" + server.V + " vertices) on http://127.0.0.1:"
+            + server.port() + "/ with at most " + maxInFlight + " queries in flight");
+    }
+}
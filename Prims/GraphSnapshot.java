@@ -0,0 +1,374 @@
+// Snapshot of a loaded graph and its computed trees, for fast warm restarts
+//
+// File layout (big endian):
+//   int magic, int version, int V, int section count, long table checksum
+//   section table: { int id, int source, long offset, long bytes, long checksum } per section
+//   section data, each section a plain array of ints
+//
+// The table checksum is a CRC32 over the 16 header bytes before it and the
+// whole section table, so V and the section count are covered as well.
+//
+// Opening a snapshot only reads the header and the section table, and checks
+// that every section lies inside the file and has the length its id implies
+// for this V. Each section is mapped, checksummed with CRC32 and copied out
+// the first time it is asked for, so a restarted server can answer from the
+// stored results straight away and pays for the graph arrays only when it
+// needs them.
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.zip.CRC32;
+
+class GraphSnapshot {
+    static final int MAGIC = 0x47534E50;   // "GSNP"
+    static final int VERSION = 2;        // 2: table checksum covers the header
+
+    // section ids
+    static final int GRAPH_OFF = 1;
+    static final int GRAPH_ADJ = 2;
+    static final int GRAPH_WGT = 3;
+    static final int PRIM_PARENT = 4;
+    static final int PRIM_KEY = 5;
+    static final int SPT_PARENT = 6;
+    static final int SPT_DIST = 7;
+    static final int MST_EDGES = 8;        // u, v, wgt triples
+
+    private static final int HEADER = 24, ENTRY = 32;
+
+    final int V;
+    private final FileChannel ch;
+    private final int[] ids, sources;
+    private final long[] offsets, bytes, checksums;
+    private final int[][] loaded;
+    private GraphCSR g;
+
+    private GraphSnapshot(FileChannel _ch, int _V, int n)
+    {
+        ch = _ch;
+        V = _V;
+        ids = new int[n];
+        sources = new int[n];
+        offsets = new long[n];
+        bytes = new long[n];
+        checksums = new long[n];
+        loaded = new int[n][];
+    }
+
+    // Opens a snapshot, reading and checking only its header and section table.
+    static GraphSnapshot open(String file) throws IOException
+    {
+        FileChannel ch = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+        try {
+            ByteBuffer h = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(ch.size(), HEADER));
+            if (h.limit() < HEADER || h.getInt(0) != MAGIC)
+                throw new IOException(file + " is not a graph snapshot");
+            if (h.getInt(4) != VERSION)
+                throw new IOException(file + " has snapshot version " + h.getInt(4) + ", expected " + VERSION);
+
+            int V = h.getInt(8), n = h.getInt(12);
+            long dataStart = HEADER + (long) n * ENTRY;
+            if (V < 0 || n < 0 || dataStart > ch.size())
+                throw new IOException(file + ": bad header, V = " + V + ", " + n + " sections");
+
+            ByteBuffer t = ch.map(FileChannel.MapMode.READ_ONLY, HEADER, (long) n * ENTRY);
+            CRC32 crc = new CRC32();
+            crc.update(h.duplicate().limit(16));
+            crc.update(t.duplicate());
+            if (crc.getValue() != h.getLong(16))
+                throw new IOException(file + ": header or section table checksum mismatch");
+
+            GraphSnapshot snap = new GraphSnapshot(ch, V, n);
+            for (int i = 0; i < n; i++) {
+                snap.ids[i] = t.getInt(i * ENTRY);
+                snap.sources[i] = t.getInt(i * ENTRY + 4);
+                snap.offsets[i] = t.getLong(i * ENTRY + 8);
+                snap.bytes[i] = t.getLong(i * ENTRY + 16);
+                snap.checksums[i] = t.getLong(i * ENTRY + 24);
+                snap.checkSection(file, i, dataStart);
+            }
+            if (snap.has(GRAPH_OFF) && snap.length(GRAPH_ADJ) != snap.length(GRAPH_WGT))
+                throw new IOException(file + ": graph sections " + GRAPH_ADJ + " and " + GRAPH_WGT
+                    + " differ in length");
+            return snap;
+        } catch (IOException | RuntimeException x) {
+            ch.close();
+            throw x;
+        }
+    }
+
+    // Throws unless section i lies inside the file and holds as many ints as
+    // its id implies: V + 2 row offsets, V + 1 for the per-vertex results,
+    // whole {u, v, wgt} triples for the MST edges.
+    private void checkSection(String file, int i, long dataStart) throws IOException
+    {
+        if (offsets[i] < dataStart || bytes[i] < 0 || offsets[i] + bytes[i] > ch.size()
+                || bytes[i] % 4 != 0 || bytes[i] / 4 > Integer.MAX_VALUE - 8)
+            throw new IOException(file + ": section " + ids[i] + " has bad offset or length");
+
+        long n = bytes[i] / 4, want;
+        switch (ids[i]) {
+        case GRAPH_OFF:
+            want = V + 2L;
+            break;
+        case PRIM_PARENT:
+        case PRIM_KEY:
+        case SPT_PARENT:
+        case SPT_DIST:
+            want = V + 1L;
+            if (sources[i] < 1 || sources[i] > V)
+                throw new IOException(file + ": section " + ids[i] + " has source " + sources[i]
+                    + " outside 1.." + V);
+            break;
+        case MST_EDGES:
+            want = n - n % 3;
+            break;
+        default:
+            want = n;                  // unknown to this version, never read
+        }
+        if (n != want)
+            throw new IOException(file + ": section " + ids[i] + " holds " + n + " ints, expected "
+                + want + " for V = " + V);
+    }
+
+    // number of ints in a section, -1 if absent
+    private long length(int id)
+    {
+        int i = find(id);
+        return i < 0 ? -1 : bytes[i] / 4;
+    }
+
+    public boolean has(int id)
+    {
+        return find(id) >= 0;
+    }
+
+    // source vertex the stored result was computed from, 0 if not stored
+    public int source(int id)
+    {
+        int i = find(id);
+        return i < 0 ? 0 : sources[i];
+    }
+
+    // The stored array for a section, checked and loaded on first use; null if absent.
+    public synchronized int[] section(int id) throws IOException
+    {
+        int i = find(id);
+        if (i < 0)
+            return null;
+        if (loaded[i] == null)
+            loaded[i] = read(i);
+        return loaded[i];
+    }
+
+    // The graph itself, loaded on first use.
+    public synchronized GraphCSR graph() throws IOException
+    {
+        if (g == null) {
+            if (!has(GRAPH_OFF))
+                throw new IOException("Snapshot has no graph");
+            int[] off = section(GRAPH_OFF);
+            if (off[1] != 0 || off[V + 1] != length(GRAPH_ADJ))
+                throw new IOException("Snapshot row offsets do not match the adjacency section");
+            for (int v = 1; v <= V; v++)
+                if (off[v] > off[v + 1])
+                    throw new IOException("Snapshot row offsets decrease at vertex " + v);
+            g = new GraphCSR(V, off, section(GRAPH_ADJ), section(GRAPH_WGT));
+        }
+        return g;
+    }
+
+    public void close() throws IOException
+    {
+        ch.close();
+    }
+
+    private int find(int id)
+    {
+        for (int i = 0; i < ids.length; i++)
+            if (ids[i] == id)
+                return i;
+        return -1;
+    }
+
+    // Maps a section piece by piece (a single mapping is limited to 2GB),
+    // checksumming and copying it into an int[].
+    private int[] read(int i) throws IOException
+    {
+        int[] a = new int[(int) (bytes[i] / 4)];
+        CRC32 crc = new CRC32();
+        long piece = 1L << 28;
+
+        for (long done = 0; done < bytes[i]; done += piece) {
+            long len = Math.min(piece, bytes[i] - done);
+            MappedByteBuffer m = ch.map(FileChannel.MapMode.READ_ONLY, offsets[i] + done, len);
+            crc.update(m.duplicate());
+            IntBuffer ib = m.asIntBuffer();
+            ib.get(a, (int) (done / 4), (int) (len / 4));
+        }
+
+        if (crc.getValue() != checksums[i])
+            throw new IOException("Snapshot checksum mismatch in section " + ids[i]);
+        return a;
+    }
+
+    /*
+     * Writing
+     */
+
+    // Collects the sections to store; results that were not computed are left out.
+    static class Writer {
+        private final GraphCSR g;
+        private final List<int[]> data = new ArrayList<>();
+        private final List<int[]> meta = new ArrayList<>();   // { id, source }
+
+        Writer(GraphCSR _g)
+        {
+            g = _g;
+            add(GRAPH_OFF, 0, g.off);
+            add(GRAPH_ADJ, 0, g.adj);
+            add(GRAPH_WGT, 0, g.wgt);
+        }
+
+        Writer prim(int s, int[] parent, int[] key)
+        {
+            add(PRIM_PARENT, s, parent);
+            add(PRIM_KEY, s, key);
+            return this;
+        }
+
+        Writer spt(int s, int[] parent, int[] dist)
+        {
+            add(SPT_PARENT, s, parent);
+            add(SPT_DIST, s, dist);
+            return this;
+        }
+
+        // MST edges as {u, v, wgt}, e.g. from MST_Kruskal or GraphCoordinator.MST
+        Writer mst(List<int[]> edges)
+        {
+            int[] flat = new int[edges.size() * 3];
+            for (int i = 0; i < edges.size(); i++)
+                System.arraycopy(edges.get(i), 0, flat, i * 3, 3);
+            add(MST_EDGES, 0, flat);
+            return this;
+        }
+
+        private void add(int id, int source, int[] a)
+        {
+            meta.add(new int[] { id, source });
+            data.add(a);
+        }
+
+        // Writes to a temporary file first and renames it into place, so a
+        // crash mid-write never leaves a torn snapshot behind.
+        void write(String file) throws IOException
+        {
+            Path target = Paths.get(file);
+            Path tmp = Paths.get(file + ".tmp");
+            int n = data.size();
+
+            ByteBuffer table = ByteBuffer.allocate(n * ENTRY);
+            long pos = HEADER + (long) n * ENTRY;
+
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buf = ByteBuffer.allocate(1 << 20);
+
+                for (int i = 0; i < n; i++) {
+                    int[] a = data.get(i);
+                    CRC32 crc = new CRC32();
+                    long start = pos;
+
+                    for (int k = 0; k < a.length; ) {
+                        buf.clear();
+                        int m = Math.min(a.length - k, buf.capacity() / 4);
+                        buf.asIntBuffer().put(a, k, m);
+                        buf.limit(m * 4);
+                        crc.update(buf.duplicate());
+                        while (buf.hasRemaining())
+                            pos += ch.write(buf, pos);
+                        k += m;
+                    }
+
+                    table.putInt(meta.get(i)[0]).putInt(meta.get(i)[1])
+                        .putLong(start).putLong(pos - start).putLong(crc.getValue());
+                }
+
+                table.flip();
+                ByteBuffer header = ByteBuffer.allocate(HEADER);
+                header.putInt(MAGIC).putInt(VERSION).putInt(g.V).putInt(n);
+                CRC32 crc = new CRC32();
+                crc.update(header.duplicate().flip());
+                crc.update(table.duplicate());
+                header.putLong(crc.getValue());
+                header.flip();
+                ch.write(header, 0);
+                ch.write(table, HEADER);
+                ch.force(true);
+            }
+
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    // MST edges {u, v, wgt} from the parent/key arrays of MST_Prim
+    static List<int[]> primEdges(int[] parent, int[] key)
+    {
+        List<int[]> edges = new ArrayList<>();
+        for (int v = 1; v < parent.length; v++)
+            if (parent[v] != 0)
+                edges.add(new int[] { parent[v], v, key[v] });
+        return edges;
+    }
+
+    // Builds a graph, computes its trees from s and snapshots everything to <file>.snap
+    public static void main(String[] args) throws IOException
+    {
+        String fname;
+        Scanner scanned = new Scanner(System.in);
+
+        System.out.print("\nInput name of file with graph definition: ");
+        fname = scanned.nextLine();
+
+        System.out.print("\nEnter the vertex you want to start at (I.E A = 1, B = 2 etc): ");
+        int s = scanned.nextInt();
+
+        long t0 = System.nanoTime();
+        GraphCSR g = ParallelGraphBuilder.build(fname, true);
+        int[] primParent = new int[g.V + 1];
+        int[] key = g.MST_Prim(s, primParent);
+        int[] sptParent = new int[g.V + 1];
+        int[] dist = g.SPT_Dijkstra(s, sptParent);
+        long t1 = System.nanoTime();
+
+        new Writer(g).prim(s, primParent, key).spt(s, sptParent, dist)
+            .mst(primEdges(primParent, key)).write(fname + ".snap");
+        long t2 = System.nanoTime();
+
+        GraphSnapshot snap = open(fname + ".snap");
+        int[] stored = snap.section(SPT_DIST);
+        long t3 = System.nanoTime();
+        snap.graph();
+        long t4 = System.nanoTime();
+        snap.close();
+
+        System.out.println("\nBuild and compute: " + (t1 - t0) / 1000000 + " ms");
+        System.out.println("Write snapshot:    " + (t2 - t1) / 1000000 + " ms");
+        System.out.println("Open + distances:  " + (t3 - t2) / 1000000 + " ms");
+        System.out.println("Load graph:        " + (t4 - t3) / 1000000 + " ms");
+        System.out.println("Stored distances match: " + java.util.Arrays.equals(dist, stored));
+
+        scanned.close();
+    }
+}
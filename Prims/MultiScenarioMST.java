@@ -0,0 +1,227 @@
+// Minimum spanning trees of one topology under many weight scenarios
+// The input is a graph definition file with a scenario count in the header
+// and one weight per scenario on each edge line:
+//
+//     V E S
+//     u v w1 w2 ... wS
+//
+// The topology (edge endpoints and a CSR of edge ids) is parsed and built
+// once. The weights are stored column-wise, one contiguous int[E] per
+// scenario, so each scenario's MST streams through its own column only.
+// The scenarios are solved in parallel, each with its own union-find sets
+// (Kruskal) or heap (Prim). Disconnected graphs give spanning forests.
+// Negative weights are allowed: both algorithms only compare weights, and
+// the heap orders negative keys correctly, so Kruskal and Prim agree.
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.stream.IntStream;
+
+class MultiScenarioMST {
+    final int V, E, S;
+    final int[] eu, ev;          // endpoints of edge e, 0 <= e < E
+    final int[][] weights;       // weights[scenario][e]
+
+    // topology CSR: the edges at v are eid[off[v]] .. eid[off[v+1]-1]
+    private final int[] off, adj, eid;
+
+    MultiScenarioMST(int _V, int[] _eu, int[] _ev, int[][] _weights)
+    {
+        V = _V;
+        E = _eu.length;
+        S = _weights.length;
+        eu = _eu;
+        ev = _ev;
+        weights = _weights;
+
+        off = new int[V + 2];
+        for (int e = 0; e < E; e++) {
+            off[eu[e] + 1]++;
+            off[ev[e] + 1]++;
+        }
+        for (int v = 1; v <= V + 1; v++)
+            off[v] += off[v - 1];
+
+        adj = new int[2 * E];
+        eid = new int[2 * E];
+        int[] next = Arrays.copyOf(off, V + 2);
+        for (int e = 0; e < E; e++) {
+            int k = next[eu[e]]++;
+            adj[k] = ev[e];
+            eid[k] = e;
+            k = next[ev[e]]++;
+            adj[k] = eu[e];
+            eid[k] = e;
+        }
+    }
+
+    // Reads a multi-scenario file on all cores, in the same two passes over
+    // line-aligned mapped chunks as ParallelGraphBuilder: count the edges in
+    // each chunk, then parse every chunk straight into its slice of the columns.
+    // As there, exactly the E edges of the header are read.
+    static MultiScenarioMST read(String graphFile) throws IOException
+    {
+        try (FileChannel ch = FileChannel.open(Paths.get(graphFile), StandardOpenOption.READ)) {
+            long[] header = new long[3];
+            long dataStart = ParallelGraphBuilder.readHeader(ch, header);
+            int V = (int) header[0];
+            int S = (int) header[2];
+            if (S < 1)
+                throw new IllegalArgumentException(graphFile + ": header needs a scenario count, \"V E S\"");
+
+            long[] bounds = ParallelGraphBuilder.splitChunks(ch, dataStart);
+            int chunks = bounds.length - 1;
+            int[] first = ParallelGraphBuilder.edgeIndex(ch, bounds, header[1], graphFile);
+
+            int E = first[chunks];
+            int[] eu = new int[E], ev = new int[E];
+            int[][] weights = new int[S][E];
+
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                ParallelGraphBuilder.EdgeCursor in =
+                    new ParallelGraphBuilder.EdgeCursor(ParallelGraphBuilder.map(ch, bounds[c], bounds[c + 1]));
+                for (int e = first[c]; e < first[c + 1]; e++) {
+                    in.nextLine();
+                    eu[e] = in.nextInt();
+                    ev[e] = in.nextInt();
+                    ParallelGraphBuilder.checkVertex(eu[e], V);
+                    ParallelGraphBuilder.checkVertex(ev[e], V);
+                    for (int s = 0; s < S; s++)
+                        weights[s][e] = in.nextInt();
+                    in.endLine();
+                }
+            });
+
+            return new MultiScenarioMST(V, eu, ev, weights);
+        }
+    }
+
+    // Kruskal for every scenario. Returns the MST edge ids of each scenario.
+    public int[][] MST_Kruskal()
+    {
+        int[][] mst = new int[S][];
+        IntStream.range(0, S).parallel().forEach(s -> mst[s] = kruskal(weights[s]));
+        return mst;
+    }
+
+    // Prim for every scenario. Returns the MST edge ids of each scenario.
+    public int[][] MST_Prim()
+    {
+        int[][] mst = new int[S][];
+        IntStream.range(0, S).parallel().forEach(s -> mst[s] = prim(weights[s]));
+        return mst;
+    }
+
+    public long weight(int s, int[] mstEdges)
+    {
+        long sum = 0;
+        for (int e : mstEdges)
+            sum += weights[s][e];
+        return sum;
+    }
+
+    private int[] kruskal(int[] w)
+    {
+        // weight in the high word, edge id in the low word
+        long[] order = new long[E];
+        for (int e = 0; e < E; e++)
+            order[e] = ((long) w[e] << 32) | e;
+        Arrays.sort(order);
+
+        UnionFindSets partition = new UnionFindSets(V);
+        int[] mst = new int[Math.max(V - 1, 0)];
+        int i = 0;
+
+        for (int k = 0; k < E && i < V - 1; k++) {
+            int e = (int) order[k];
+            if (partition.union(eu[e], ev[e]))
+                mst[i++] = e;
+        }
+        return Arrays.copyOf(mst, i);
+    }
+
+    private int[] prim(int[] w)
+    {
+        int[] key = new int[V + 1];
+        int[] via = new int[V + 1];      // edge id joining v to the tree
+        int[] hPos = new int[V + 1];
+        boolean[] inTree = new boolean[V + 1];
+        int[] mst = new int[Math.max(V - 1, 0)];
+        int i = 0;
+
+        for (int v = 1; v <= V; v++)
+            key[v] = Integer.MAX_VALUE;
+
+        Heap h = new Heap(V, key, hPos);
+
+        // one Prim run per component, so disconnected inputs give a forest
+        for (int root = 1; root <= V; root++) {
+            if (inTree[root])
+                continue;
+            key[root] = 0;
+            via[root] = -1;
+            h.insert(root);
+
+            while (!h.isEmpty()) {
+                int v = h.remove();
+                inTree[v] = true;
+                if (via[v] >= 0)
+                    mst[i++] = via[v];
+
+                for (int k = off[v]; k < off[v + 1]; k++) {
+                    int u = adj[k], e = eid[k];
+                    if (!inTree[u] && w[e] < key[u]) {
+                        key[u] = w[e];
+                        via[u] = e;
+                        if (hPos[u] == 0)
+                            h.insert(u);
+                        else
+                            h.siftUp(hPos[u]);
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(mst, i);
+    }
+
+    // convert vertex into char for pretty printing
+    private static char toChar(int u)
+    {
+        return (char)(u + 64);
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        String fname;
+        Scanner scanned = new Scanner(System.in);
+
+        System.out.print("\nInput name of file with graph definition (\"V E S\" header): ");
+        fname = scanned.nextLine();
+
+        System.out.print("\nAlgorithm (1 = Kruskal, 2 = Prim): ");
+        boolean prim = scanned.nextInt() == 2;
+
+        long t0 = System.nanoTime();
+        MultiScenarioMST m = read(fname);
+        long t1 = System.nanoTime();
+        int[][] mst = prim ? m.MST_Prim() : m.MST_Kruskal();
+        long t2 = System.nanoTime();
+
+        System.out.println("\nRead " + m.V + " vertices, " + m.E + " edges, " + m.S + " scenarios in "
+            + (t1 - t0) / 1000000 + " ms; all MSTs in " + (t2 - t1) / 1000000 + " ms");
+
+        for (int s = 0; s < m.S; s++) {
+            System.out.print("\nScenario " + (s + 1) + ": weight of MST = " + m.weight(s, mst[s]) + "\n");
+            if (m.V <= 26) {
+                for (int e : mst[s])
+                    System.out.print("Edge " + toChar(m.eu[e]) + "--" + m.weights[s][e] + "--" + toChar(m.ev[e]) + "\n");
+            }
+        }
+
+        scanned.close();
+    }
+}
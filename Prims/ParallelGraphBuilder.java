@@ -0,0 +1,356 @@
+// Parallel construction of a GraphCSR from a graph definition file
+// (same format as GraphLists: "V E" on the first line, then one "u v wgt" per line)
+//
+// The file is memory mapped and split into chunks at line boundaries. A quick
+// scan counts the lines in each chunk, so that exactly the E edges the header
+// announces are read, as GraphLists does. Each chunk is then parsed twice on
+// all cores: the first pass counts vertex degrees into an atomic histogram, a
+// prefix sum turns the degrees into row offsets, and the second pass scatters
+// each edge into both of its CSR rows. Parsing twice keeps peak memory at the
+// size of the CSR instead of holding an extra edge list.
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+class ParallelGraphBuilder {
+    // Chunks stay far below the 2GB limit of a single mapping and there are
+    // enough of them to keep every core busy.
+    static final long MAX_CHUNK = 64L << 20;
+
+    // Builds the CSR for graphFile; edge weights must be >= 0. With dedup, parallel edges are merged
+    // keeping the minimum weight and self loops are dropped, which is all that
+    // MST and shortest path trees ever look at.
+    static GraphCSR build(String graphFile, boolean dedup) throws IOException
+    {
+        try (FileChannel ch = FileChannel.open(Paths.get(graphFile), StandardOpenOption.READ)) {
+            long[] header = new long[2];
+            long dataStart = readHeader(ch, header);
+            int V = (int) header[0];
+
+            long[] bounds = splitChunks(ch, dataStart);
+            int chunks = bounds.length - 1;
+            int[] first = edgeIndex(ch, bounds, header[1], graphFile);
+
+            // pass 1: degree histogram
+            AtomicIntegerArray deg = new AtomicIntegerArray(V + 2);
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                EdgeCursor in = new EdgeCursor(map(ch, bounds[c], bounds[c + 1]));
+                for (int e = first[c]; e < first[c + 1]; e++) {
+                    in.nextLine();
+                    int u = in.nextInt(), v = in.nextInt(), w = in.nextInt();
+                    in.endLine();
+                    checkVertex(u, V);
+                    checkVertex(v, V);
+                    checkWeight(u, v, w);
+                    deg.incrementAndGet(u);
+                    deg.incrementAndGet(v);
+                }
+            });
+
+            int[] off = offsets(V, deg);
+            int[] adj = new int[off[V + 1]];
+            int[] wgt = new int[off[V + 1]];
+
+            // pass 2: scatter both directions of every edge into the CSR
+            AtomicIntegerArray next = new AtomicIntegerArray(off);
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                EdgeCursor in = new EdgeCursor(map(ch, bounds[c], bounds[c + 1]));
+                for (int e = first[c]; e < first[c + 1]; e++) {
+                    in.nextLine();
+                    int u = in.nextInt(), v = in.nextInt(), w = in.nextInt();
+                    in.endLine();
+                    int k = next.getAndIncrement(u);
+                    adj[k] = v;
+                    wgt[k] = w;
+                    k = next.getAndIncrement(v);
+                    adj[k] = u;
+                    wgt[k] = w;
+                }
+            });
+
+            GraphCSR g = new GraphCSR(V, off, adj, wgt);
+            return dedup ? dedup(g) : g;
+        }
+    }
+
+    // Builds the CSR from edge arrays already in memory, e.g. generated graphs.
+    static GraphCSR fromEdges(int V, int[] eu, int[] ev, int[] ew, boolean dedup)
+    {
+        int E = eu.length;
+        AtomicIntegerArray deg = new AtomicIntegerArray(V + 2);
+        IntStream.range(0, E).parallel().forEach(e -> {
+            checkVertex(eu[e], V);
+            checkVertex(ev[e], V);
+            checkWeight(eu[e], ev[e], ew[e]);
+            deg.incrementAndGet(eu[e]);
+            deg.incrementAndGet(ev[e]);
+        });
+
+        int[] off = offsets(V, deg);
+        int[] adj = new int[off[V + 1]];
+        int[] wgt = new int[off[V + 1]];
+
+        AtomicIntegerArray next = new AtomicIntegerArray(off);
+        IntStream.range(0, E).parallel().forEach(e -> {
+            int k = next.getAndIncrement(eu[e]);
+            adj[k] = ev[e];
+            wgt[k] = ew[e];
+            k = next.getAndIncrement(ev[e]);
+            adj[k] = eu[e];
+            wgt[k] = ew[e];
+        });
+
+        GraphCSR g = new GraphCSR(V, off, adj, wgt);
+        return dedup ? dedup(g) : g;
+    }
+
+    // Exclusive prefix sum of the degree histogram: off[v] = sum of deg[1..v-1]
+    private static int[] offsets(int V, AtomicIntegerArray deg)
+    {
+        long[] sum = new long[V + 2];
+        IntStream.rangeClosed(1, V).parallel().forEach(v -> sum[v + 1] = deg.get(v));
+        Arrays.parallelPrefix(sum, Long::sum);
+
+        if (sum[V + 1] > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Graph has " + sum[V + 1]
+                + " adjacency slots, more than fit in a single CSR array");
+
+        int[] off = new int[V + 2];
+        IntStream.range(0, V + 2).parallel().forEach(v -> off[v] = (int) sum[v]);
+        return off;
+    }
+
+    // Sorts every row by neighbour and keeps the lightest of each group of
+    // parallel edges, then compacts the rows into new arrays. The rows are
+    // rewritten in g's own arrays first, which is only safe because g was just
+    // built here and no other thread has seen it; GraphCSR arrays are
+    // otherwise never modified, so this stays private to the builder.
+    private static GraphCSR dedup(GraphCSR g)
+    {
+        int V = g.V;
+        int[] deg = new int[V + 2];
+
+        IntStream.rangeClosed(1, V).parallel().forEach(v -> {
+            int lo = g.off[v], n = g.off[v + 1] - lo;
+            long[] row = new long[n];
+            int k, m = 0;
+
+            // neighbour in the high word, weight with its sign bit flipped in
+            // the low word, so sorting orders by neighbour then signed weight
+            for (k = 0; k < n; k++)
+                row[k] = ((long) g.adj[lo + k] << 32) | ((g.wgt[lo + k] ^ 0x80000000) & 0xffffffffL);
+            Arrays.sort(row);
+
+            for (k = 0; k < n; k++) {
+                int u = (int) (row[k] >>> 32);
+                if (u == v || (m > 0 && g.adj[lo + m - 1] == u))
+                    continue;
+                g.adj[lo + m] = u;
+                g.wgt[lo + m] = (int) row[k] ^ 0x80000000;
+                m++;
+            }
+            deg[v] = m;
+        });
+
+        int[] off = new int[V + 2];
+        for (int v = 1; v <= V; v++)
+            off[v + 1] = off[v] + deg[v];
+
+        int[] adj = new int[off[V + 1]];
+        int[] wgt = new int[off[V + 1]];
+        IntStream.rangeClosed(1, V).parallel().forEach(v -> {
+            System.arraycopy(g.adj, g.off[v], adj, off[v], deg[v]);
+            System.arraycopy(g.wgt, g.off[v], wgt, off[v], deg[v]);
+        });
+        return new GraphCSR(V, off, adj, wgt);
+    }
+
+    static void checkVertex(int u, int V)
+    {
+        if (u < 1 || u > V)
+            throw new IllegalArgumentException("Vertex " + u + " out of range 1.." + V);
+    }
+
+    // GraphCSR.SPT_Dijkstra, and the server and tools built on it, are only
+    // correct for weights >= 0, so negative weights are rejected up front.
+    static void checkWeight(int u, int v, int w)
+    {
+        if (w < 0)
+            throw new IllegalArgumentException("Negative weight " + w + " on edge " + u + "--" + v);
+    }
+
+    // Reads the "V E" line (and any further numbers on it, up to the length
+    // of header[]) and returns the offset of the first edge line.
+    static long readHeader(FileChannel ch, long[] header) throws IOException
+    {
+        long end = lineEnd(ch, 0);
+        ByteBuffer b = ByteBuffer.allocate((int) end);
+        ch.read(b, 0);
+        String[] parts = new String(b.array(), 0, (int) end).trim().split(" +");
+        for (int i = 0; i < header.length && i < parts.length; i++)
+            header[i] = Long.parseLong(parts[i]);
+        return end + 1;
+    }
+
+    // Counts the non-blank lines of every chunk and returns first[], where
+    // chunk c holds edges first[c] .. first[c+1]-1. Only the first E lines are
+    // edges: anything after them is ignored, and a file with fewer is rejected.
+    static int[] edgeIndex(FileChannel ch, long[] bounds, long E, String graphFile)
+    {
+        if (E < 0 || E > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException(graphFile + ": bad edge count " + E + " in header");
+
+        int chunks = bounds.length - 1;
+        long[] lines = new long[chunks + 1];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            EdgeCursor in = new EdgeCursor(map(ch, bounds[c], bounds[c + 1]));
+            long n = 0;
+            while (in.nextLine()) {
+                in.endLine();
+                n++;
+            }
+            lines[c + 1] = n;
+        });
+        for (int c = 0; c < chunks; c++)
+            lines[c + 1] += lines[c];
+
+        if (lines[chunks] < E)
+            throw new IllegalArgumentException(graphFile + ": header says " + E
+                + " edges, but there are only " + lines[chunks] + " edge lines");
+
+        int[] first = new int[chunks + 1];
+        for (int c = 0; c <= chunks; c++)
+            first[c] = (int) Math.min(lines[c], E);
+        return first;
+    }
+
+    // Splits [dataStart, size) into chunks that each end just after a '\n'.
+    static long[] splitChunks(FileChannel ch, long dataStart) throws IOException
+    {
+        long size = ch.size();
+        int cores = Runtime.getRuntime().availableProcessors();
+        long target = Math.max(1, Math.min(MAX_CHUNK, (size - dataStart) / (cores * 4L) + 1));
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(Math.min(dataStart, size));
+        long p = dataStart;
+        while (p < size) {
+            p = Math.min(size, lineEnd(ch, Math.min(size, p + target)) + 1);
+            bounds.add(p);
+        }
+
+        long[] b = new long[bounds.size()];
+        for (int i = 0; i < b.length; i++)
+            b[i] = bounds.get(i);
+        return b;
+    }
+
+    // offset of the first '\n' at or after pos, or the file size if there is none
+    private static long lineEnd(FileChannel ch, long pos) throws IOException
+    {
+        ByteBuffer b = ByteBuffer.allocate(4096);
+        long size = ch.size();
+        while (pos < size) {
+            b.clear();
+            int n = ch.read(b, pos);
+            for (int i = 0; i < n; i++)
+                if (b.get(i) == '\n')
+                    return pos + i;
+            pos += n;
+        }
+        return size;
+    }
+
+    static MappedByteBuffer map(FileChannel ch, long from, long to)
+    {
+        try {
+            return ch.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException x) {
+            throw new UncheckedIOException(x);
+        }
+    }
+
+    // Reads whitespace separated integers line by line from one mapped chunk,
+    // without creating a String per line like BufferedReader/split do.
+    static final class EdgeCursor {
+        private final MappedByteBuffer buf;
+        private final int lim;
+        private int pos;
+
+        EdgeCursor(MappedByteBuffer _buf)
+        {
+            buf = _buf;
+            lim = _buf.limit();
+            pos = 0;
+        }
+
+        // skips blank lines, false once the chunk is used up
+        boolean nextLine()
+        {
+            while (pos < lim && buf.get(pos) <= ' ')
+                pos++;
+            return pos < lim;
+        }
+
+        int nextInt()
+        {
+            byte c;
+            while (pos < lim && ((c = buf.get(pos)) == ' ' || c == '\t' || c == '\r'))
+                pos++;
+
+            boolean neg = pos < lim && buf.get(pos) == '-';
+            if (neg)
+                pos++;
+
+            int start = pos;
+            long n = 0;
+            while (pos < lim && (c = buf.get(pos)) >= '0' && c <= '9') {
+                n = n * 10 + (c - '0');
+                pos++;
+            }
+            if (pos == start || n > Integer.MAX_VALUE)
+                throw new NumberFormatException("Bad integer in edge line near byte " + pos);
+            return neg ? (int) -n : (int) n;
+        }
+
+        // skips anything left on the current line
+        void endLine()
+        {
+            while (pos < lim && buf.get(pos) != '\n')
+                pos++;
+        }
+    }
+
+    // Builds the CSR for a file and reports the time taken
+    public static void main(String[] args) throws IOException
+    {
+        String fname;
+        Scanner scanned = new Scanner(System.in);
+
+        System.out.print("\nInput name of file with graph definition: ");
+        fname = scanned.nextLine();
+
+        System.out.print("\nMerge parallel edges keeping the minimum weight? (y/n): ");
+        boolean dedup = scanned.nextLine().trim().startsWith("y");
+
+        long t0 = System.nanoTime();
+        GraphCSR g = build(fname, dedup);
+        long t1 = System.nanoTime();
+
+        System.out.println("\nBuilt CSR with " + g.V + " vertices and " + g.slots() / 2
+            + " edges in " + (t1 - t0) / 1000000 + " ms using "
+            + Runtime.getRuntime().availableProcessors() + " cores");
+
+        scanned.close();
+    }
+}
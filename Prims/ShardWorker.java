@@ -0,0 +1,208 @@
+// Worker process for distributed SSSP and MST over a sharded graph
+// Loads one shard written by GraphPartitioner, connects to the GraphCoordinator
+// on localhost and answers its commands until told to quit.
+//
+// Only the rows of owned vertices are scanned. dist[] and the component sets
+// are kept for all V ids so that ghost (remote) endpoints can be looked up
+// directly; the edges, which dominate memory, are split k ways.
+//
+// usage: ShardWorker <shard file> <owner file> <coordinator port> <worker id>
+
+import java.io.*;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+
+class ShardWorker {
+    // commands sent by the coordinator
+    static final int OP_QUIT = 0;
+    static final int OP_SSSP_START = 1;   // int s
+    static final int OP_SSSP_STEP = 2;    // batch of (v, dist, from) -> batch of (v, dist, from)
+    static final int OP_SSSP_RESULT = 3;  // -> (v, dist, parent) for owned v
+    static final int OP_MST_START = 4;
+    static final int OP_MST_ROUND = 5;    // merged (u, v) pairs -> (set, u, v, wgt) candidates
+
+    private final GraphCSR g;
+    private final int[] owner;
+    private final int id;
+
+    private int[] dist, parent, hPos;
+    private UnionFindSets sets;
+
+    ShardWorker(GraphCSR _g, int[] _owner, int _id)
+    {
+        g = _g;
+        owner = _owner;
+        id = _id;
+    }
+
+    void serve(DataInputStream in, DataOutputStream out) throws IOException
+    {
+        out.writeInt(id);
+        out.flush();
+
+        while (true) {
+            int op = in.readInt();
+            switch (op) {
+                case OP_QUIT:
+                    return;
+                case OP_SSSP_START:
+                    ssspStart(in.readInt());
+                    break;
+                case OP_SSSP_STEP:
+                    ssspStep(in, out);
+                    break;
+                case OP_SSSP_RESULT:
+                    ssspResult(out);
+                    break;
+                case OP_MST_START:
+                    sets = new UnionFindSets(g.V);
+                    break;
+                case OP_MST_ROUND:
+                    mstRound(in, out);
+                    break;
+                default:
+                    throw new IOException("Unknown command " + op);
+            }
+            out.flush();
+        }
+    }
+
+    private void ssspStart(int s)
+    {
+        dist = new int[g.V + 1];
+        parent = new int[g.V + 1];
+        hPos = new int[g.V + 1];
+        for (int v = 1; v <= g.V; v++)
+            dist[v] = Integer.MAX_VALUE;
+        // s itself arrives as the message (s, 0, 0) in the first step
+    }
+
+    // One BSP superstep: apply the incoming boundary distances, run Dijkstra
+    // over the owned vertices until it settles, and send back the best new
+    // distance found for each remote vertex as one batch. Sums are taken in
+    // long, like GraphCSR.SPT_Dijkstra, so distances never wrap negative.
+    private void ssspStep(DataInputStream in, DataOutputStream out) throws IOException
+    {
+        Heap pq = new Heap(g.V, dist, hPos);
+        Map<Integer, int[]> remote = new HashMap<>();
+        int v, u, k;
+        long d;
+
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            v = in.readInt();
+            d = in.readInt();
+            u = in.readInt();
+            if (d < dist[v]) {
+                dist[v] = (int) d;
+                parent[v] = u;
+                if (hPos[v] == 0)
+                    pq.insert(v);
+                else
+                    pq.siftUp(hPos[v]);
+            }
+        }
+
+        while (!pq.isEmpty()) {
+            v = pq.remove();
+            for (k = g.off[v]; k < g.off[v + 1]; k++) {
+                u = g.adj[k];
+                d = (long) dist[v] + g.wgt[k];
+                if (d < dist[u]) {
+                    dist[u] = (int) d;
+                    parent[u] = v;
+                    if (owner[u] != id)
+                        remote.put(u, new int[] { dist[u], v });
+                    else if (hPos[u] == 0)
+                        pq.insert(u);
+                    else
+                        pq.siftUp(hPos[u]);
+                }
+            }
+        }
+
+        out.writeInt(remote.size());
+        for (Map.Entry<Integer, int[]> m : remote.entrySet()) {
+            out.writeInt(m.getKey());
+            out.writeInt(m.getValue()[0]);
+            out.writeInt(m.getValue()[1]);
+        }
+    }
+
+    private void ssspResult(DataOutputStream out) throws IOException
+    {
+        int n = 0;
+        for (int v = 1; v <= g.V; v++)
+            if (owner[v] == id)
+                n++;
+
+        out.writeInt(n);
+        for (int v = 1; v <= g.V; v++) {
+            if (owner[v] == id) {
+                out.writeInt(v);
+                out.writeInt(dist[v]);
+                out.writeInt(parent[v]);
+            }
+        }
+    }
+
+    // One Boruvka round: apply last round's merges in the coordinator's order,
+    // so the set representatives match everywhere, then report the lightest
+    // edge leaving each set as seen from the owned vertices.
+    private void mstRound(DataInputStream in, DataOutputStream out) throws IOException
+    {
+        int n = in.readInt();
+        for (int i = 0; i < n; i++)
+            sets.union(in.readInt(), in.readInt());
+
+        Map<Integer, int[]> best = new HashMap<>();
+        for (int v = 1; v <= g.V; v++) {
+            if (owner[v] != id)
+                continue;
+            int sv = sets.findSet(v);
+            for (int k = g.off[v]; k < g.off[v + 1]; k++) {
+                int u = g.adj[k];
+                if (sets.findSet(u) == sv)
+                    continue;
+                int[] e = { v, u, g.wgt[k] };
+                int[] b = best.get(sv);
+                if (b == null || lighter(e, b))
+                    best.put(sv, e);
+            }
+        }
+
+        out.writeInt(best.size());
+        for (Map.Entry<Integer, int[]> m : best.entrySet()) {
+            out.writeInt(m.getKey());
+            for (int x : m.getValue())
+                out.writeInt(x);
+        }
+    }
+
+    // Total order on edges {u, v, wgt}: by weight, then by endpoints. Boruvka
+    // needs a strict order so that equal weights cannot close a cycle.
+    static boolean lighter(int[] a, int[] b)
+    {
+        if (a[2] != b[2])
+            return a[2] < b[2];
+        int a1 = Math.min(a[0], a[1]), b1 = Math.min(b[0], b[1]);
+        if (a1 != b1)
+            return a1 < b1;
+        return Math.max(a[0], a[1]) < Math.max(b[0], b[1]);
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        GraphCSR g = ParallelGraphBuilder.build(args[0], true);
+        int[] owner = GraphPartitioner.readOwners(args[1]);
+        int port = Integer.parseInt(args[2]);
+        int id = Integer.parseInt(args[3]);
+
+        try (Socket sock = new Socket("127.0.0.1", port)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(sock.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(sock.getOutputStream()));
+            new ShardWorker(g, owner, id).serve(in, out);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/****************************************************
+*
+*       UnionFind partition to support union-find operations
+*       Union by rank and path compression, as in KruskalTrees.
+*       Deterministic: the same sequence of unions always
+*       gives the same set representatives.
+*
+*****************************************************/
+
+class UnionFindSets {
+    private int[] treeParent;
+    private int[] rank;
+
+    public UnionFindSets(int V) {
+        treeParent = new int[V + 1];
+        rank = new int[V + 1];
+        for (int i = 1; i <= V; i++) {
+            treeParent[i] = i;
+            rank[i] = 0;
+        }
+    }
+
+    public int findSet(int vertex) {
+        int root = vertex;
+        while (root != treeParent[root])
+            root = treeParent[root];
+
+        // Path compression
+        while (vertex != root) {
+            int next = treeParent[vertex];
+            treeParent[vertex] = root;
+            vertex = next;
+        }
+        return root;
+    }
+
+    // Joins the sets of u and v, false if they were already the same set
+    public boolean union(int u, int v) {
+        int root1 = findSet(u);
+        int root2 = findSet(v);
+        if (root1 == root2)
+            return false;
+
+        // Union by rank
+        if (rank[root1] < rank[root2]) {
+            treeParent[root1] = root2;
+        } else if (rank[root1] > rank[root2]) {
+            treeParent[root2] = root1;
+        } else {
+            treeParent[root2] = root1;
+            rank[root1]++;
+        }
+        return true;
+    }
+}
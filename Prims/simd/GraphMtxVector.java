@@ -0,0 +1,109 @@
+// SIMD kernels for the dense O(V^2) Prim and Dijkstra in GraphMtx
+// Uses the incubating Vector API, so this file lives in its own source root
+// and is only compiled on request, after the rest of the Prims folder:
+//     javac -d out *.java
+//     javac --add-modules jdk.incubator.vector -cp out -d out simd/GraphMtxVector.java
+// GraphMtx loads it by name when the JVM is started with
+//     --add-modules jdk.incubator.vector
+// Otherwise GraphMtx runs the scalar loops, which compute the same thing.
+//
+// All arrays are indexed 1..V like the rest of the graph code; lane 0 of
+// the first vector starts at index 1.
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+final class GraphMtxVector implements GraphMtxKernels {
+    private static final VectorSpecies<Integer> S = IntVector.SPECIES_PREFERRED;
+    private static final IntVector IOTA = IntVector.zero(S).addIndex(1);
+    private static final IntVector INF = IntVector.broadcast(S, Integer.MAX_VALUE);
+
+    GraphMtxVector() { }
+
+    // Open vertex (done[i] == 0) with the smallest dist, 0 if every open
+    // vertex is at Integer.MAX_VALUE. Ties go to the lowest index.
+    public int minOpen(int[] dist, int[] done, int V)
+    {
+        IntVector best = INF;
+        IntVector bestIdx = IntVector.zero(S);
+        int i = 1, upper = 1 + S.loopBound(V);
+
+        for (; i < upper; i += S.length()) {
+            VectorMask<Integer> open = IntVector.fromArray(S, done, i).compare(VectorOperators.EQ, 0);
+            IntVector d = IntVector.fromArray(S, dist, i);
+            VectorMask<Integer> lt = d.compare(VectorOperators.LT, best).and(open);
+            best = best.blend(d, lt);
+            bestIdx = bestIdx.blend(IOTA.add(i), lt);
+        }
+
+        // lowest index among the lanes holding the minimum
+        int min = best.reduceLanes(VectorOperators.MIN);
+        int v = 0;
+        if (min != Integer.MAX_VALUE)
+            v = bestIdx.reduceLanes(VectorOperators.MIN, best.compare(VectorOperators.EQ, min));
+
+        for (; i <= V; i++) {
+            if (done[i] == 0 && dist[i] < min) {
+                min = dist[i];
+                v = i;
+            }
+        }
+        return v;
+    }
+
+    // Prim: key[i] = row[i], parent[i] = v wherever i is open, row[i] is an
+    // edge and row[i] < key[i]
+    public void relaxPrim(int[] row, int[] key, int[] done, int[] parent, int v, int V)
+    {
+        IntVector from = IntVector.broadcast(S, v);
+        int i = 1, upper = 1 + S.loopBound(V);
+
+        for (; i < upper; i += S.length()) {
+            IntVector w = IntVector.fromArray(S, row, i);
+            VectorMask<Integer> m = w.compare(VectorOperators.NE, 0)
+                .and(w.compare(VectorOperators.LT, IntVector.fromArray(S, key, i)))
+                .and(IntVector.fromArray(S, done, i).compare(VectorOperators.EQ, 0));
+            w.intoArray(key, i, m);
+            from.intoArray(parent, i, m);
+        }
+
+        for (; i <= V; i++) {
+            if (row[i] != 0 && done[i] == 0 && row[i] < key[i]) {
+                key[i] = row[i];
+                parent[i] = v;
+            }
+        }
+    }
+
+    // Dijkstra: dist[i] = dist[v] + row[i], parent[i] = v wherever i is
+    // open, row[i] is an edge and the new distance is shorter. Lanes where
+    // the sum would pass Integer.MAX_VALUE are masked out before the add
+    // wraps, as the scalar loop compares in long.
+    public void relaxDijkstra(int[] row, int[] dist, int[] done, int[] parent, int v, int V)
+    {
+        IntVector from = IntVector.broadcast(S, v);
+        int dv = dist[v];
+        int limit = dv >= 0 ? Integer.MAX_VALUE - dv : Integer.MAX_VALUE;
+        int i = 1, upper = 1 + S.loopBound(V);
+
+        for (; i < upper; i += S.length()) {
+            IntVector w = IntVector.fromArray(S, row, i);
+            IntVector d = w.add(dv);
+            VectorMask<Integer> m = w.compare(VectorOperators.NE, 0)
+                .and(w.compare(VectorOperators.LE, limit))
+                .and(d.compare(VectorOperators.LT, IntVector.fromArray(S, dist, i)))
+                .and(IntVector.fromArray(S, done, i).compare(VectorOperators.EQ, 0));
+            d.intoArray(dist, i, m);
+            from.intoArray(parent, i, m);
+        }
+
+        for (; i <= V; i++) {
+            if (row[i] != 0 && done[i] == 0 && (long) dv + row[i] < dist[i]) {
+                dist[i] = dv + row[i];
+                parent[i] = v;
+            }
+        }
+    }
+}